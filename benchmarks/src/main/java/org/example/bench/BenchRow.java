@@ -0,0 +1,24 @@
+package org.example.bench;
+
+import jakarta.persistence.MappedSuperclass;
+
+import java.time.LocalDateTime;
+
+/**
+ * Same columns as chat_message, so both id strategies insert the same row
+ * shape.
+ */
+@MappedSuperclass
+public abstract class BenchRow {
+    private int chatId;
+    private int userId;
+    private String message;
+    private LocalDateTime startAt;
+
+    public void fill(int chatId, int userId, String message) {
+        this.chatId = chatId;
+        this.userId = userId;
+        this.message = message;
+        this.startAt = LocalDateTime.now();
+    }
+}
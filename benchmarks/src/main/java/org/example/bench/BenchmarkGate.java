@@ -0,0 +1,169 @@
+package org.example.bench;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks and compares every score with a recorded baseline,
+ * failing when one got worse by more than the tolerance. Time per operation
+ * may grow and throughput may drop by at most that fraction.
+ * <pre>
+ * java --enable-preview -cp target/benchmarks.jar org.example.bench.BenchmarkGate --record
+ * java --enable-preview -cp target/benchmarks.jar org.example.bench.BenchmarkGate [--tolerance 0.15] [regex...]
+ * </pre>
+ * {@code --baseline file} picks another baseline than {@code baseline.tsv},
+ * {@code --quick} runs fewer and shorter iterations. A baseline only holds
+ * for the machine it was recorded on.
+ * <p>
+ * Besides a regression the gate also fails when there is no baseline, when a
+ * recorded benchmark matching the includes did not run and when a score comes
+ * in another unit than the one recorded.
+ */
+public class BenchmarkGate {
+    private static final String DEFAULT_INCLUDE = "org\\.example\\.bench\\.(SendMessage|Fanout|History|EntitySerialization)Benchmark";
+
+    public static void main(String[] args) throws Exception {
+        boolean record = false;
+        boolean quick = false;
+        Path baselineFile = Path.of("baseline.tsv");
+        double tolerance = 0.15;
+        List<String> includes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--record" -> record = true;
+                case "--quick" -> quick = true;
+                case "--baseline" -> baselineFile = Path.of(args[++i]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                default -> includes.add(args[i]);
+            }
+        }
+        if (includes.isEmpty()) {
+            includes.add(DEFAULT_INCLUDE);
+        }
+
+        // Checked up front, a whole run is no use without something to compare it with
+        if (!record && !Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile.toAbsolutePath() + ", run with --record first");
+            System.exit(1);
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder();
+        includes.forEach(options::include);
+        if (quick) {
+            options.warmupIterations(1).warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3).measurementTime(TimeValue.seconds(1));
+        }
+        Map<String, Score> scores = new TreeMap<>();
+        for (RunResult run : new Runner(options.build()).run()) {
+            Result<?> result = run.getPrimaryResult();
+            BenchmarkParams params = run.getParams();
+            scores.put(key(params), new Score(result.getScore(), result.getScoreUnit(),
+                    params.getMode() == Mode.Throughput));
+        }
+
+        if (record) {
+            writeBaseline(baselineFile, scores);
+            System.out.println("Recorded " + scores.size() + " scores in " + baselineFile.toAbsolutePath());
+            return;
+        }
+        Map<String, Recorded> baseline = readBaseline(baselineFile);
+        List<String> regressions = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        System.out.printf("%n%-90s %12s %12s %8s%n", "Benchmark", "Baseline", "Now", "Change");
+        for (Map.Entry<String, Score> entry : scores.entrySet()) {
+            Score now = entry.getValue();
+            Recorded before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %12s %12.3f %8s%n", entry.getKey(), "-", now.value(), "new");
+                continue;
+            }
+            if (!before.unit().equals(now.unit())) {
+                problems.add(entry.getKey() + " is measured in " + now.unit() + ", recorded in " + before.unit());
+                continue;
+            }
+            // Positive means worse, whichever way the mode counts
+            double worse = now.higherIsBetter()
+                    ? (before.value() - now.value()) / before.value()
+                    : (now.value() - before.value()) / before.value();
+            System.out.printf("%-90s %12.3f %12.3f %+7.1f%% %s%n", entry.getKey(), before.value(), now.value(),
+                    worse * 100, now.unit());
+            if (worse > tolerance) {
+                regressions.add(entry.getKey());
+            }
+        }
+        List<Pattern> patterns = includes.stream().map(Pattern::compile).toList();
+        for (String key : baseline.keySet()) {
+            String benchmark = key.substring(0, key.indexOf(" ["));
+            if (!scores.containsKey(key) && patterns.stream().anyMatch(p -> p.matcher(benchmark).find())) {
+                problems.add(key + " is in the baseline but did not run");
+            }
+        }
+        if (!regressions.isEmpty() || !problems.isEmpty()) {
+            if (!regressions.isEmpty()) {
+                System.err.printf("%d benchmark(s) more than %.0f%% worse than the baseline:%n",
+                        regressions.size(), tolerance * 100);
+                regressions.forEach(key -> System.err.println("  " + key));
+            }
+            if (!problems.isEmpty()) {
+                System.err.println("The run does not match the baseline:");
+                problems.forEach(problem -> System.err.println("  " + problem));
+            }
+            System.exit(1);
+        }
+        System.out.printf("No benchmark more than %.0f%% worse than the baseline%n", tolerance * 100);
+    }
+
+    private record Score(double value, String unit, boolean higherIsBetter) {
+    }
+
+    private record Recorded(double value, String unit) {
+    }
+
+    private static String key(BenchmarkParams params) {
+        StringBuilder key = new StringBuilder(params.getBenchmark()).append(" [").append(params.getMode().shortLabel());
+        for (String name : params.getParamsKeys()) {
+            // The database is part of the machine, like the hardware
+            if (!name.equals("jdbcUrl")) {
+                key.append(", ").append(name).append('=').append(params.getParam(name));
+            }
+        }
+        return key.append(']').toString();
+    }
+
+    // One "score<TAB>unit<TAB>benchmark" line per benchmark
+    private static void writeBaseline(Path file, Map<String, Score> scores) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Recorded " + LocalDate.now() + " on " + Runtime.getRuntime().availableProcessors()
+                + " cores, Java " + System.getProperty("java.version") + ", " + System.getProperty("os.name"));
+        scores.forEach((key, score) -> lines.add(score.value() + "\t" + score.unit() + "\t" + key));
+        Files.write(file, lines);
+    }
+
+    private static Map<String, Recorded> readBaseline(Path file) throws IOException {
+        Map<String, Recorded> baseline = new TreeMap<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", 3);
+            baseline.put(fields[2], new Recorded(Double.parseDouble(fields[0]), fields[1]));
+        }
+        return baseline;
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.bench;
+
+import org.example.domain.ChatGroup;
+import org.example.domain.ChatLog;
+import org.example.domain.ChatMessage;
+import org.example.domain.ChatUser;
+import org.example.domain.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The application's schema on a throwaway database, for the benchmarks and
+ * checks that run the real services. The JDBC URL defaults to in-memory H2
+ * in MySQL mode; {@code bench.db.user} and {@code bench.db.password} are the
+ * credentials for any other database.
+ */
+final class ChatDatabase {
+    static final String H2_URL = "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER";
+
+    private ChatDatabase() {
+    }
+
+    static String h2Url(String name) {
+        return H2_URL.formatted(name);
+    }
+
+    /**
+     * Recreates the schema on start and drops it on close.
+     */
+    static Configuration configuration(String jdbcUrl) {
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.url", jdbcUrl);
+        configuration.setProperty("hibernate.connection.username", System.getProperty("bench.db.user", "sa"));
+        configuration.setProperty("hibernate.connection.password", System.getProperty("bench.db.password", ""));
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        configuration.setProperty("hibernate.jdbc.batch_size", "64");
+        configuration.setProperty("hibernate.enable_lazy_load_no_trans", "false");
+        configuration.addAnnotatedClass(User.class);
+        configuration.addAnnotatedClass(ChatUser.class);
+        configuration.addAnnotatedClass(ChatGroup.class);
+        configuration.addAnnotatedClass(ChatMessage.class);
+        configuration.addAnnotatedClass(ChatLog.class);
+        return configuration;
+    }
+
+    static SessionFactory sessionFactory(String jdbcUrl) {
+        return configuration(jdbcUrl).buildSessionFactory();
+    }
+
+    static User user(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setNickname(username);
+        user.setEmail(username + "@example.org");
+        user.setPassword(username);
+        user.setRole(role);
+        return user;
+    }
+
+    /**
+     * A group with {@code members} users who wrote {@code messages} lines in turn.
+     *
+     * @return the id of the group
+     */
+    static int seedGroup(SessionFactory sessionFactory, String name, int members, int messages) {
+        try (Session session = sessionFactory.openSession()) {
+            session.setJdbcBatchSize(1000);
+            Transaction tx = session.beginTransaction();
+            ChatGroup group = new ChatGroup();
+            group.setChatName(name);
+            session.persist(group);
+            User[] users = new User[members];
+            for (int u = 0; u < members; u++) {
+                users[u] = user(name + "_user" + u, "user");
+                session.persist(users[u]);
+                group.getParticipants().add(users[u]);
+            }
+            LocalDateTime time = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MICROS);
+            for (int m = 0; m < messages; m++) {
+                ChatMessage message = new ChatMessage();
+                message.setUser(users[m % members]);
+                message.setChatGroup(group);
+                message.setMessage(name + "_user" + (m % members) + ": message " + m + " of the benchmark history");
+                message.setStart_at(time.plusNanos(m * 1_000_000L));
+                message.setSeq(m + 1L);
+                session.persist(message);
+                if (m % 1000 == 999) {
+                    // Keeps the persistence context small for large histories
+                    session.flush();
+                    session.clear();
+                    group = session.getReference(ChatGroup.class, group.getChatId());
+                    for (int u = 0; u < members; u++) {
+                        users[u] = session.getReference(User.class, users[u].getUser_id());
+                    }
+                }
+            }
+            tx.commit();
+            return group.getChatId();
+        }
+    }
+
+    // The search index loads on its own thread, it should not compete with what is measured
+    static void awaitIndexLoad() throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("message-index-load")) {
+                thread.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.bench;
+
+import org.example.domain.ChatGroup;
+import org.example.domain.ChatMessage;
+import org.example.domain.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RMI marshalling cost of the entities the services still return, loaded
+ * from the database the way a service hands them out: detached, with their
+ * to-one associations fetched and collections left unloaded. The bytes each
+ * one takes on the wire are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dhibernate.show_sql=false"})
+@State(Scope.Benchmark)
+public class EntitySerializationBenchmark {
+    @Param({"User", "ChatGroup", "ChatMessage"})
+    public String entity;
+
+    private Object value;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SessionFactory sessionFactory = ChatDatabase.sessionFactory(ChatDatabase.h2Url("serialization-bench"));
+        int chatId = ChatDatabase.seedGroup(sessionFactory, "wire", 5, 10);
+        try (Session session = sessionFactory.openSession()) {
+            value = switch (entity) {
+                case "User" -> session.createQuery("FROM User u WHERE u.username = 'wire_user0'", User.class)
+                        .getSingleResult();
+                case "ChatGroup" -> session.createQuery(
+                                "FROM ChatGroup g LEFT JOIN FETCH g.admin WHERE g.chatId = :chatId", ChatGroup.class)
+                        .setParameter("chatId", chatId).getSingleResult();
+                case "ChatMessage" -> session.createQuery(
+                                "FROM ChatMessage m JOIN FETCH m.user JOIN FETCH m.chatGroup "
+                                        + "WHERE m.chatGroup.chatId = :chatId ORDER BY m.message_id", ChatMessage.class)
+                        .setParameter("chatId", chatId).setMaxResults(1).getSingleResult();
+                default -> throw new IllegalArgumentException("Unknown entity " + entity);
+            };
+        }
+        sessionFactory.close();
+        bytes = encode(value);
+        System.out.printf("%n%s: %d bytes%n", entity, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return encode(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] encode(Object payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(out)) {
+            objects.writeObject(payload);
+        }
+        return out.toByteArray();
+    }
+}
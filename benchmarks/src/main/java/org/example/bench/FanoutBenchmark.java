@@ -0,0 +1,94 @@
+package org.example.bench;
+
+import org.example.dto.MessageView;
+import org.example.rmi.ChatObserver;
+import org.example.server.fanout.FanoutSettings;
+import org.example.server.fanout.ObserverDispatcher;
+import org.example.server.fanout.OverflowPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out of one message to every observer of a room, the
+ * {@code notifyAllObservers} step after a commit. {@link #publish} is what
+ * the message writer pays before it can commit the next batch,
+ * {@link #publishAndDeliver} waits until every observer has been called.
+ * <p>
+ * Observers are in-process stubs, so this measures the dispatcher's own
+ * queues and sender threads, not the network. The batch window is off so
+ * every message goes out at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class FanoutBenchmark {
+    private static final int CHAT_ID = 1;
+
+    @Param({"10", "1000", "10000"})
+    public int observers;
+
+    private ObserverDispatcher dispatcher;
+    private MessageView message;
+    private volatile CountDownLatch delivered = new CountDownLatch(0);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dispatcher = new ObserverDispatcher(new FanoutSettings(64, OverflowPolicy.DROP_OLDEST, 64, 0));
+        for (int i = 0; i < observers; i++) {
+            dispatcher.subscribe(CHAT_ID, i, "member" + i, new CountingObserver(), () -> {
+            });
+        }
+        message = new MessageView(1, CHAT_ID, 0, "member0", "member0: benchmark line", LocalDateTime.now(), 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    public void publish() {
+        dispatcher.publish(CHAT_ID, message);
+    }
+
+    @Benchmark
+    public void publishAndDeliver() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(observers);
+        delivered = latch;
+        dispatcher.publish(CHAT_ID, message);
+        latch.await();
+    }
+
+    private final class CountingObserver implements ChatObserver {
+        @Override
+        public void notifyNewMessage(String text, int chatId) {
+            delivered.countDown();
+        }
+
+        @Override
+        public void notifyMessages(List<MessageView> messages, int chatId) {
+            for (int i = 0; i < messages.size(); i++) {
+                delivered.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.bench;
+
+import org.example.dto.MessageView;
+import org.example.server.impl.ChatServiceImpl;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a room's history at several sizes: the whole history with
+ * {@link ChatServiceImpl#getAllChatMessages}, also marshalled the way RMI
+ * sends it, against the newest page that {@link ChatServiceImpl#getRecentMessages}
+ * serves from the cache.
+ * <p>
+ * Runs on in-memory H2 by default; pass {@code -p jdbcUrl=...} to measure
+ * a MySQL server instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dhibernate.show_sql=false"})
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+    private static final int MEMBERS = 20;
+    private static final int PAGE_SIZE = 50;
+
+    @Param("jdbc:h2:mem:history-bench;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER")
+    public String jdbcUrl;
+
+    @Param({"100", "1000", "10000"})
+    public int historySize;
+
+    private SessionFactory sessionFactory;
+    private ChatServiceImpl chatService;
+    private int chatId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        sessionFactory = ChatDatabase.sessionFactory(jdbcUrl);
+        chatId = ChatDatabase.seedGroup(sessionFactory, "history", MEMBERS, historySize);
+        chatService = new ChatServiceImpl(sessionFactory);
+        ChatDatabase.awaitIndexLoad();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        UnicastRemoteObject.unexportObject(chatService, true);
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<MessageView> getAllChatMessages() throws Exception {
+        return chatService.getAllChatMessages(chatId);
+    }
+
+    @Benchmark
+    public byte[] getAllChatMessagesMarshalled() throws Exception {
+        return marshal(chatService.getAllChatMessages(chatId));
+    }
+
+    @Benchmark
+    public List<MessageView> getRecentMessages() throws Exception {
+        return chatService.getRecentMessages(chatId, PAGE_SIZE);
+    }
+
+    private static byte[] marshal(Object result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(result);
+        }
+        return bytes.toByteArray();
+    }
+}
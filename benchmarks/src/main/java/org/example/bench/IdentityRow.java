@@ -0,0 +1,16 @@
+package org.example.bench;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// The id strategy chat_message used before Snowflake ids
+@Entity
+@Table(name = "bench_identity_row")
+public class IdentityRow extends BenchRow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+}
@@ -0,0 +1,91 @@
+package org.example.bench;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Rows inserted per second with IDENTITY ids against Snowflake ids, one
+ * transaction of {@value #ROWS_PER_TRANSACTION} rows per invocation like a
+ * flush of the message writer. IDENTITY needs the generated key of every
+ * row and so cannot use JDBC batching.
+ * <p>
+ * Runs on in-memory H2 by default; pass {@code -p jdbcUrl=...} together with
+ * {@code -jvmArgsAppend "-Dbench.db.user=... -Dbench.db.password=..."} to
+ * measure a MySQL server instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class InsertThroughputBenchmark {
+    private static final int ROWS_PER_TRANSACTION = 64;
+
+    @Param("jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.url", jdbcUrl);
+        configuration.setProperty("hibernate.connection.username", System.getProperty("bench.db.user", "sa"));
+        configuration.setProperty("hibernate.connection.password", System.getProperty("bench.db.password", ""));
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        configuration.setProperty("hibernate.jdbc.batch_size", String.valueOf(ROWS_PER_TRANSACTION));
+        configuration.setProperty("hibernate.order_inserts", "true");
+        configuration.addAnnotatedClass(IdentityRow.class);
+        configuration.addAnnotatedClass(SnowflakeRow.class);
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void identityInserts() {
+        insert(IdentityRow::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void snowflakeInserts() {
+        insert(SnowflakeRow::new);
+    }
+
+    private void insert(Supplier<? extends BenchRow> rows) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                BenchRow row = rows.get();
+                row.fill(1, 1, "bench: message " + i);
+                session.persist(row);
+            }
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package org.example.bench;
+
+import org.example.domain.ChatGroup;
+import org.example.domain.ChatLog;
+import org.example.domain.User;
+import org.example.dto.GroupSummary;
+import org.example.dto.MessageView;
+import org.example.dto.PresenceEvent;
+import org.example.rmi.ChatLogService;
+import org.example.rmi.ChatObserver;
+import org.example.rmi.ChatService;
+import org.example.rmi.UserService;
+import org.example.server.ServerDemo;
+import org.example.server.metrics.LatencyHistogram;
+import org.example.transport.NioClient;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless chat clients against a running server, as many as a Swing client
+ * would never allow. Every client logs in through
+ * {@link UserService#checkEmailAndPassword} and {@link ChatLogService#login},
+ * registering its user on the first run. It then subscribes a lightweight
+ * observer to one of the load rooms and sends messages until the run ends.
+ * <p>
+ * Each message carries the driver's send time, so an observer receiving it
+ * knows the end-to-end delivery latency. Throughput, latencies and errors
+ * are printed every report interval and once more at the end, followed by
+ * the number of join and leave events the observers received:
+ * <pre>
+ * java --enable-preview -cp target/benchmarks.jar org.example.bench.LoadDriver \
+ *     --clients 1000 --rooms 20 --rate 0.5 --arrivals poisson --room-choice zipf --duration 120
+ * </pre>
+ * Options and their defaults:
+ * <pre>
+ * --host localhost       server to connect to
+ * --transport rmi        rmi, or nio for one NIO connection per client
+ * --start-server         run ServerDemo in this JVM first, with -Dchat.db=h2-mem for no MySQL
+ * --clients 100          simulated clients
+ * --rooms 5              rooms the clients spread over, created when missing
+ * --room-choice uniform  uniform, or zipf for a few busy rooms and a long tail
+ * --rate 1               messages per second per client
+ * --arrivals poisson     poisson, or constant for evenly spaced messages
+ * --ramp-up 10           seconds over which clients log in, not measured
+ * --duration 60          measured seconds after the ramp-up
+ * --report 5             seconds between interval reports
+ * </pre>
+ */
+public class LoadDriver {
+    private static final String MARKER = "load@";
+    private static final String PASSWORD = "load-test";
+
+    private final Map<String, String> options;
+    private final Stats interval = new Stats();
+    private final Stats total = new Stats();
+    private final LongAdder loginErrors = new LongAdder();
+    private final LongAdder subscribeErrors = new LongAdder();
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder presenceEvents = new LongAdder();
+    private String host;
+    private boolean nio;
+    private Registry registry;
+    private double rate;
+    private boolean poisson;
+    private volatile long endNanos;
+
+    private LoadDriver(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            boolean flag = i + 1 == args.length || args[i + 1].startsWith("--");
+            options.put(args[i].substring(2), flag ? "true" : args[++i]);
+        }
+        new LoadDriver(options).run();
+        System.exit(0);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+    }
+
+    private void run() throws Exception {
+        // Checked before anything starts, a rate of 0 would make every client send nonstop
+        rate = Double.parseDouble(option("rate", "1"));
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("--rate must be a positive number of messages per second, got " + rate);
+        }
+        if (Boolean.parseBoolean(option("start-server", "false"))) {
+            ServerDemo.startServer();
+        }
+        host = option("host", "localhost");
+        nio = option("transport", "rmi").equals("nio");
+        int clients = intOption("clients", 100);
+        int rooms = intOption("rooms", 5);
+        poisson = option("arrivals", "poisson").equals("poisson");
+        boolean zipf = option("room-choice", "uniform").equals("zipf");
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(intOption("ramp-up", 10));
+        long durationMillis = TimeUnit.SECONDS.toMillis(intOption("duration", 60));
+        long reportMillis = TimeUnit.SECONDS.toMillis(intOption("report", 5));
+
+        registry = LocateRegistry.getRegistry(host, 55545);
+        ChatService setup = (ChatService) registry.lookup("ChatService");
+        int[] roomIds = prepareRooms(setup, rooms);
+        double[] roomWeights = roomWeights(rooms, zipf);
+
+        System.out.printf("%d %s clients in %d %s rooms, %.2f msg/s each (%s), %d s ramp-up, %d s measured%n",
+                clients, nio ? "NIO" : "RMI", rooms, zipf ? "zipf" : "uniform", rate,
+                poisson ? "poisson" : "constant", rampUpMillis / 1000, durationMillis / 1000);
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.MILLISECONDS.toNanos(rampUpMillis);
+        endNanos = measureFrom + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            long loginAt = start + TimeUnit.MILLISECONDS.toNanos(rampUpMillis * i / clients);
+            int chatId = roomIds[pick(roomWeights)];
+            threads.execute(() -> runClient(client, loginAt, chatId));
+        }
+
+        sleepUntil(measureFrom);
+        interval.reset();
+        total.reset();
+        System.out.printf("%d of %d clients connected, measuring%n", connected.sum(), clients);
+        long lastReport = System.nanoTime();
+        while (System.nanoTime() < endNanos) {
+            sleepUntil(Math.min(endNanos, lastReport + TimeUnit.MILLISECONDS.toNanos(reportMillis)));
+            long now = System.nanoTime();
+            interval.print("interval", now - lastReport);
+            interval.reset();
+            lastReport = now;
+        }
+        total.print("total", endNanos - measureFrom);
+        System.out.printf("errors: login %d, subscribe %d%n", loginErrors.sum(), subscribeErrors.sum());
+        // Joins and leaves of the ramp-up, none of them stored as a message
+        System.out.printf("presence events received: %d%n", presenceEvents.sum());
+        threads.shutdown();
+        threads.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void runClient(int client, long loginAt, int chatId) {
+        sleepUntil(loginAt);
+        NioClient connection = null;
+        ChatService chatService;
+        UserService userService;
+        ChatLogService logService;
+        User user;
+        ChatLog chatLog;
+        try {
+            if (nio) {
+                connection = NioClient.connect(host, Integer.getInteger("chat.nio.port", 55546));
+                chatService = connection.service(ChatService.class);
+                userService = connection.service(UserService.class);
+                logService = connection.service(ChatLogService.class);
+            } else {
+                chatService = (ChatService) registry.lookup("ChatService");
+                userService = (UserService) registry.lookup("UserService");
+                logService = (ChatLogService) registry.lookup("LogService");
+            }
+            user = login(userService, "load" + client);
+            chatLog = logService.login(user.getUser_id());
+        } catch (Exception e) {
+            loginErrors.increment();
+            System.err.println("Client " + client + " could not log in: " + e.getMessage());
+            if (connection != null) {
+                connection.close();
+            }
+            return;
+        }
+
+        LoadObserver observer = new LoadObserver();
+        ChatObserver remote = observer;
+        try {
+            // Over NIO the observer stays local, the connection carries its pushes
+            if (connection == null) {
+                remote = (ChatObserver) UnicastRemoteObject.exportObject(observer, 0);
+            }
+            chatService.subscribe(user, remote, chatLog, chatId);
+            connected.increment();
+        } catch (Exception e) {
+            subscribeErrors.increment();
+            System.err.println("Client " + client + " could not subscribe: " + e.getMessage());
+            unexport(observer);
+            return;
+        }
+
+        long next = System.nanoTime();
+        double meanGapNanos = 1e9 / rate;
+        while (true) {
+            double gap = poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos : meanGapNanos;
+            // Compared before adding, a gap beyond the run would overflow the clock
+            if (gap >= endNanos - next) {
+                break;
+            }
+            next += (long) gap;
+            sleepUntil(next);
+            long sent = System.nanoTime();
+            try {
+                chatService.sendMessage(MARKER + sent, user, chatId);
+                interval.sent(System.nanoTime() - sent);
+                total.sent(System.nanoTime() - sent);
+            } catch (Exception e) {
+                interval.sendErrors.increment();
+                total.sendErrors.increment();
+            }
+        }
+
+        try {
+            ChatLog ended = logService.logout(user.getUser_id());
+            if (ended == null) {
+                ended = chatLog;
+                ended.setEnd_time(LocalDateTime.now());
+            }
+            chatService.unsubscribe(user, remote, ended, chatId);
+        } catch (Exception e) {
+            System.err.println("Client " + client + " could not leave: " + e.getMessage());
+        } finally {
+            unexport(observer);
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private static User login(UserService userService, String username) throws Exception {
+        User user = userService.checkEmailAndPassword(username + "@load.test", PASSWORD);
+        if (user != null) {
+            return user;
+        }
+        User created = new User();
+        created.setUsername(username);
+        created.setNickname(username);
+        created.setEmail(username + "@load.test");
+        created.setPassword(PASSWORD);
+        created.setRole("user");
+        return userService.registerUser(created);
+    }
+
+    private static int[] prepareRooms(ChatService chatService, int rooms) throws Exception {
+        Map<String, Integer> existing = new HashMap<>();
+        for (GroupSummary group : chatService.getAllChats()) {
+            existing.put(group.chatName(), group.chatId());
+        }
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            String name = "load-room-" + i;
+            if (!existing.containsKey(name)) {
+                ChatGroup group = new ChatGroup();
+                group.setChatName(name);
+                group.setDescription("Created by the load driver");
+                chatService.createChat(group);
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (GroupSummary group : chatService.getAllChats()) {
+                existing.put(group.chatName(), group.chatId());
+            }
+        }
+        int[] ids = new int[rooms];
+        for (int i = 0; i < rooms; i++) {
+            ids[i] = existing.get("load-room-" + i);
+        }
+        return ids;
+    }
+
+    // Cumulative weights, the k-th room of a zipf spread gets 1/k of the first one's share
+    private static double[] roomWeights(int rooms, boolean zipf) {
+        double[] cumulative = new double[rooms];
+        double sum = 0;
+        for (int i = 0; i < rooms; i++) {
+            sum += zipf ? 1.0 / (i + 1) : 1;
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < rooms; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative) {
+        double r = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    private static void unexport(ChatObserver observer) {
+        try {
+            UnicastRemoteObject.unexportObject(observer, true);
+        } catch (Exception e) {
+            // Never exported, or already gone
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class LoadObserver implements ChatObserver {
+        @Override
+        public void notifyNewMessage(String message, int chatId) {
+            received(message, System.nanoTime());
+        }
+
+        @Override
+        public void notifyMessages(List<MessageView> messages, int chatId) {
+            long now = System.nanoTime();
+            for (MessageView message : messages) {
+                received(message.body(), now);
+            }
+        }
+
+        @Override
+        public void notifyPresence(PresenceEvent event) {
+            presenceEvents.increment();
+        }
+
+        private void received(String body, long now) {
+            int at = body == null ? -1 : body.lastIndexOf(MARKER);
+            if (at < 0) {
+                return;
+            }
+            // Sent by this JVM, so the send time is on the same clock
+            long sent = Long.parseLong(body, at + MARKER.length(), body.length(), 10);
+            interval.delivered(now - sent);
+            total.delivered(now - sent);
+        }
+    }
+
+    private static final class Stats {
+        final LatencyHistogram sendLatency = new LatencyHistogram();
+        final LatencyHistogram deliveryLatency = new LatencyHistogram();
+        final LongAdder sendErrors = new LongAdder();
+
+        void sent(long nanos) {
+            sendLatency.record(nanos);
+        }
+
+        void delivered(long nanos) {
+            deliveryLatency.record(nanos);
+        }
+
+        void reset() {
+            sendLatency.reset();
+            deliveryLatency.reset();
+            sendErrors.reset();
+        }
+
+        void print(String label, long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            long sent = sendLatency.count();
+            long errors = sendErrors.sum();
+            System.out.printf("%-8s sent %8.1f/s  delivered %9.1f/s  errors %5.2f%%  "
+                            + "send p50/p99/p999 %s  delivery p50/p99/p999 %s%n",
+                    label, sent / seconds, deliveryLatency.count() / seconds,
+                    sent + errors == 0 ? 0.0 : 100.0 * errors / (sent + errors),
+                    percentiles(sendLatency), percentiles(deliveryLatency));
+        }
+
+        private static String percentiles(LatencyHistogram histogram) {
+            return String.format("%.1f/%.1f/%.1f ms", histogram.percentileNanos(0.5) / 1e6,
+                    histogram.percentileNanos(0.99) / 1e6, histogram.percentileNanos(0.999) / 1e6);
+        }
+    }
+}
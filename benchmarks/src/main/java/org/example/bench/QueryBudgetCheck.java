@@ -0,0 +1,178 @@
+package org.example.bench;
+
+import org.example.domain.ChatGroup;
+import org.example.domain.ChatMessage;
+import org.example.domain.User;
+import org.example.dto.PageRequest;
+import org.example.rmi.ChatService;
+import org.example.rmi.UserService;
+import org.example.server.impl.ChatServiceImpl;
+import org.example.server.impl.UserServiceImpl;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the SQL statements each service call runs, using Hibernate
+ * {@link Statistics}, and fails when a call runs more than its budget. The
+ * result of every call is serialized the way RMI would, so a lazy association
+ * that escapes a service shows up as a failure.
+ * <p>
+ * Runs on in-memory H2 by default, pass a JDBC URL as the first argument to
+ * use another database:
+ * <pre>
+ * java --enable-preview -cp target/benchmarks.jar org.example.bench.QueryBudgetCheck
+ * </pre>
+ */
+public class QueryBudgetCheck {
+    private static final int GROUPS = 3;
+    private static final int USERS_PER_GROUP = 10;
+    private static final int MESSAGES_PER_USER = 20;
+
+    private final Statistics statistics;
+    private final List<String> failures = new ArrayList<>();
+
+    private QueryBudgetCheck(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jdbcUrl = args.length > 0 ? args[0] : ChatDatabase.h2Url("query-budget");
+        SessionFactory sessionFactory = sessionFactory(jdbcUrl);
+        Seed seed = seed(sessionFactory);
+
+        ChatService chatService = new ChatServiceImpl(sessionFactory);
+        UserService userService = new UserServiceImpl(sessionFactory);
+        ChatDatabase.awaitIndexLoad();
+
+        QueryBudgetCheck check = new QueryBudgetCheck(sessionFactory.getStatistics());
+        int chatId = seed.chatId();
+        int userId = seed.userId();
+        User sender = userService.getUser(userId);
+
+        check.expect("ChatService.getAllChats", 1, chatService::getAllChats);
+        // A page costs its count and its rows
+        check.expect("ChatService.getChats", 2, () -> chatService.getChats(new PageRequest(0, 20, "chatName", false, null)));
+        check.expect("ChatService.getAllUsers", 1, chatService::getAllUsers);
+        check.expect("ChatService.getUsersInChat", 1, () -> chatService.getUsersInChat(chatId));
+        check.expect("ChatService.getUserByUsername", 1, () -> chatService.getUserByUsername("admin"));
+        check.expect("ChatService.getAllChatMessages", 1, () -> chatService.getAllChatMessages(chatId));
+        check.expect("ChatService.getRecentMessages (load)", 1, () -> chatService.getRecentMessages(chatId, 50));
+        check.expect("ChatService.getRecentMessages (cached)", 0, () -> chatService.getRecentMessages(chatId, 50));
+        check.expect("ChatService.getMessagesBefore", 1, () -> chatService.getMessagesBefore(chatId, Long.MAX_VALUE, 500));
+        long newest = chatService.getRecentMessages(chatId, 1).get(0).messageId();
+        check.expect("ChatService.getMessagesSince", 0, () -> chatService.getMessagesSince(chatId, newest, 50));
+        check.expect("ChatService.searchMessages", 1, () -> chatService.searchMessages("message", null, null, null, 50));
+        check.expect("ChatService.sendMessage (first)", 2, () -> {
+            chatService.sendMessage("budget check", sender, chatId);
+            return null;
+        });
+        check.expect("ChatService.sendMessage", 1, () -> {
+            chatService.sendMessage("budget check", sender, chatId);
+            return null;
+        });
+        check.expect("ChatService.sendAdminMessage", 3, () -> {
+            chatService.sendAdminMessage("budget check", sender, chatId);
+            return null;
+        });
+        check.expect("ChatService.removeUserFromChat", 1, () -> {
+            chatService.removeUserFromChat(userId, chatId);
+            return null;
+        });
+        check.expect("ChatService.addUserToGroup", 4, () -> {
+            chatService.addUserToGroup(userId, chatId);
+            return null;
+        });
+
+        check.expect("UserService.getAllUsers", 1, userService::getAllUsers);
+        check.expect("UserService.getUsers", 2, () -> userService.getUsers(new PageRequest(0, 20, "username", false, "a")));
+        check.expect("UserService.getUser", 1, () -> userService.getUser(userId));
+        check.expect("UserService.getUserByUsername", 1, () -> userService.getUserByUsername("admin"));
+        check.expect("UserService.checkEmailAndPassword", 1,
+                () -> userService.checkEmailAndPassword("admin@example.org", "admin"));
+        check.expect("UserService.getGroupDataByUserId", 1, () -> userService.getGroupDataByUserId(userId));
+
+        sessionFactory.close();
+        if (!check.failures.isEmpty()) {
+            System.err.println("Over budget: " + String.join(", ", check.failures));
+            System.exit(1);
+        }
+        System.out.println("All service calls within their statement budget");
+        System.exit(0);
+    }
+
+    private void expect(String call, int budget, Callable<Object> invocation) throws Exception {
+        statistics.clear();
+        Object result = invocation.call();
+        // Marshal the result like RMI, touching anything the call left unloaded
+        try (ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            out.writeObject(result);
+        }
+        long statements = statistics.getPrepareStatementCount();
+        System.out.printf("%-45s %3d statement(s), budget %d%n", call, statements, budget);
+        if (statements > budget) {
+            failures.add(call);
+        }
+    }
+
+    private static SessionFactory sessionFactory(String jdbcUrl) {
+        Configuration configuration = ChatDatabase.configuration(jdbcUrl);
+        configuration.setProperty("hibernate.generate_statistics", "true");
+        return configuration.buildSessionFactory();
+    }
+
+    private record Seed(int chatId, int userId) {
+    }
+
+    private static Seed seed(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            User admin = ChatDatabase.user("admin", "admin");
+            admin.setEmail("admin@example.org");
+            admin.setPassword("admin");
+            session.persist(admin);
+
+            ChatGroup first = null;
+            User member = null;
+            for (int g = 0; g < GROUPS; g++) {
+                ChatGroup group = new ChatGroup();
+                group.setChatName("group " + g);
+                group.setAdmin(admin);
+                session.persist(group);
+                long seq = 0;
+                for (int u = 0; u < USERS_PER_GROUP; u++) {
+                    User user = ChatDatabase.user("user" + g + "_" + u, "user");
+                    session.persist(user);
+                    group.getParticipants().add(user);
+                    for (int m = 0; m < MESSAGES_PER_USER; m++) {
+                        ChatMessage message = new ChatMessage();
+                        message.setUser(user);
+                        message.setChatGroup(group);
+                        message.setMessage(user.getNickname() + ": message " + m);
+                        message.setStart_at(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+                        message.setSeq(++seq);
+                        session.persist(message);
+                    }
+                    if (member == null) {
+                        member = user;
+                    }
+                }
+                if (first == null) {
+                    first = group;
+                }
+            }
+            tx.commit();
+            return new Seed(first.getChatId(), member.getUser_id());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.bench;
+
+import org.example.domain.ChatLog;
+import org.example.domain.User;
+import org.example.dto.MessageView;
+import org.example.rmi.ChatObserver;
+import org.example.server.impl.ChatServiceImpl;
+import org.example.server.impl.UserServiceImpl;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.rmi.server.UnicastRemoteObject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link ChatServiceImpl#sendMessage} from the caller's side:
+ * queueing for the message writer, the batched insert and commit, and
+ * handing the message to the room's observers. One sender measures the
+ * commit latency, eight concurrent senders show how far group commit
+ * amortizes it.
+ * <p>
+ * Runs on in-memory H2 by default; pass {@code -p jdbcUrl=...} to measure
+ * a MySQL server instead.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dhibernate.show_sql=false"})
+@State(Scope.Benchmark)
+public class SendMessageBenchmark {
+    @Param("jdbc:h2:mem:send-bench;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER")
+    public String jdbcUrl;
+
+    // In-process observers subscribed to the room
+    @Param({"0", "100"})
+    public int observers;
+
+    private SessionFactory sessionFactory;
+    private ChatServiceImpl chatService;
+    private User sender;
+    private int chatId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        sessionFactory = ChatDatabase.sessionFactory(jdbcUrl);
+        chatId = ChatDatabase.seedGroup(sessionFactory, "send", Math.max(observers, 1), 1000);
+        chatService = new ChatServiceImpl(sessionFactory);
+        ChatDatabase.awaitIndexLoad();
+        UserServiceImpl userService = new UserServiceImpl(sessionFactory);
+        sender = userService.getUserByUsername("send_user0");
+        for (int i = 0; i < observers; i++) {
+            ChatLog chatLog = new ChatLog();
+            chatLog.setStart_time(LocalDateTime.now());
+            chatService.subscribe(userService.getUserByUsername("send_user" + i), new NoOpObserver(), chatLog, chatId);
+        }
+        UnicastRemoteObject.unexportObject(userService, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        UnicastRemoteObject.unexportObject(chatService, true);
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void sendMessage() throws Exception {
+        chatService.sendMessage("benchmark line", sender, chatId);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void sendMessageConcurrently() throws Exception {
+        chatService.sendMessage("benchmark line", sender, chatId);
+    }
+
+    static final class NoOpObserver implements ChatObserver {
+        @Override
+        public void notifyNewMessage(String message, int chatId) {
+        }
+
+        @Override
+        public void notifyMessages(List<MessageView> messages, int chatId) {
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.bench;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.example.domain.id.SnowflakeId;
+
+@Entity
+@Table(name = "bench_snowflake_row")
+public class SnowflakeRow extends BenchRow {
+    @Id
+    @SnowflakeId
+    private long id;
+}
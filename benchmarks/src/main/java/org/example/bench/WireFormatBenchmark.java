@@ -0,0 +1,106 @@
+package org.example.bench;
+
+import org.example.dto.MessageBatch;
+import org.example.dto.MessageView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of one fan-out callback's payload, a burst of chat
+ * lines, as the default serialized {@code ArrayList<MessageView>} against a
+ * {@link MessageBatch}. Both go through an object stream like RMI marshalling.
+ * The bytes each form takes on the wire are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+    private static final int SENDERS = 20;
+
+    @Param({"1", "16", "256"})
+    public int batchSize;
+
+    private List<MessageView> defaultPayload;
+    private MessageBatch compactPayload;
+    private byte[] defaultBytes;
+    private byte[] compactBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<MessageView> messages = new ArrayList<>(batchSize);
+        LocalDateTime time = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        long messageId = 300_000_000_000_000_000L;
+        for (int i = 0; i < batchSize; i++) {
+            int sender = i % SENDERS;
+            String nickname = "member" + sender;
+            time = time.plusNanos(1_500_000 + 7_000L * i);
+            messageId += 1_000_000L + i;
+            messages.add(new MessageView(messageId, 42, 1000 + sender, nickname,
+                    nickname + ": message number " + i + " of this burst, with a few words", time, 10_000 + i));
+        }
+        defaultPayload = messages;
+        compactPayload = new MessageBatch(messages);
+        defaultBytes = encode(defaultPayload);
+        compactBytes = encode(compactPayload);
+        System.out.printf("%n%d line(s): ArrayList<MessageView> %d bytes, MessageBatch %d bytes%n",
+                batchSize, defaultBytes.length, compactBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeDefault() throws IOException {
+        return encode(defaultPayload);
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() throws IOException {
+        return encode(compactPayload);
+    }
+
+    @Benchmark
+    public Object decodeDefault() throws Exception {
+        return decode(defaultBytes);
+    }
+
+    @Benchmark
+    public Object decodeCompact() throws Exception {
+        return decode(compactBytes);
+    }
+
+    private static byte[] encode(Object payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object decode(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
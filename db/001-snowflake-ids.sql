@@ -0,0 +1,13 @@
+-- Widens the message and chat log ids to the 64-bit ids the server generates
+-- since it stopped using AUTO_INCREMENT for them. hibernate.hbm2ddl.auto=update
+-- may widen the columns itself on dialects that can alter a column type (seen
+-- on H2), but that is not verified on MySQL and does not happen at all without
+-- ALTER rights or with update turned off, so a database created by an older
+-- server needs this once before the new server starts:
+--
+--   mysql -u root -p chat_app_db < db/001-snowflake-ids.sql
+--
+-- Existing ids are kept, new ones are far larger and still sort after them.
+
+ALTER TABLE chat_message MODIFY message_id BIGINT NOT NULL;
+ALTER TABLE ChatLog MODIFY chat_id BIGINT NOT NULL;
@@ -14,6 +14,7 @@ import org.example.domain.ChatLog;
 import org.example.domain.User;
 import org.example.rmi.*;
 import org.example.server.impl.ChatLogServiceImpl;
+import org.example.transport.NioClient;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 
@@ -149,6 +150,14 @@ public class ChatLauncherUI extends JFrame {
 
     private void setupServices() {
         try {
+            if ("nio".equals(System.getProperty("chat.transport"))) {
+                // One connection for calls and chat updates instead of RMI callbacks
+                NioClient client = NioClient.connect("localhost", Integer.getInteger("chat.nio.port", 55546));
+                chatService = client.service(ChatService.class);
+                userService = client.service(UserService.class);
+                logService = client.service(ChatLogService.class);
+                return;
+            }
             Registry registry = LocateRegistry.getRegistry("localhost", 55545);
             chatService = (ChatService) registry.lookup("ChatService");
             userService = (UserService) registry.lookup("UserService");
@@ -2,8 +2,12 @@ package org.example.client.admin;
 
 import org.example.domain.ChatGroup;
 import org.example.domain.ChatLog;
-import org.example.domain.ChatMessage;
 import org.example.domain.User;
+import org.example.dto.GroupSummary;
+import org.example.dto.MessageView;
+import org.example.dto.PageRequest;
+import org.example.dto.PresenceEvent;
+import org.example.dto.UserSummary;
 import org.example.rmi.ChatLogService;
 import org.example.rmi.ChatObserver;
 import org.example.rmi.ChatService;
@@ -15,7 +19,6 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import javax.swing.plaf.basic.BasicScrollBarUI;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
@@ -46,20 +49,31 @@ public class AdminDashboardUI extends JFrame {
     private final ChatLogService logService;
     private ChatLog currentChatLog;
     private int currentGroupId = -1;
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private static final int TABLE_PAGE_SIZE = 100;
+    private static final int TABLE_CACHED_PAGES = 20; // per table, the rest is fetched again when scrolled back to
+    private static final int USER_CHOICES = 50;
+    private long lastSequence; // highest message sequence shown for currentGroupId
+    private long oldestMessageId;
+    private boolean hasOlderMessages;
 
 
     private JPanel groupChatPanel;
     private JTextArea adminChatArea;
+    private JScrollPane adminChatScroll;
     private JTextField adminMsgField;
     private JButton adminSendButton;
     private JScrollPane adminGroupScroll;
     private JPanel adminGroupButtonPanel;
-    private ChatGroup selectedAdminGroup;
+    private GroupSummary selectedAdminGroup;
     private ChatObserver adminObserver;
     private ChatObserver adminObserverStub;
 
     private JTable userTable;
     private JTable chatTable;
+    private PagedTableModel<UserSummary> userModel;
+    private PagedTableModel<GroupSummary> chatModel;
 
     public AdminDashboardUI(User adminUser, UserService userService, ChatService chatService, ChatLogService logService) {
         this.currentAdminUser = adminUser;
@@ -154,6 +168,14 @@ public class AdminDashboardUI extends JFrame {
             }
         };
         styleTable(userTable);
+        userModel = new PagedTableModel<>(userService::getUsers,
+                new String[]{"User ID", "Email", "Nickname", "Role", "Username"},
+                new String[]{"userId", "email", "nickname", "role", "username"},
+                user -> new Object[]{user.userId(), user.email(), user.nickname(), user.role(), user.username()},
+                TABLE_PAGE_SIZE, TABLE_CACHED_PAGES,
+                e -> showError("Failed to load users: " + e.getMessage()));
+        userTable.setModel(userModel);
+        sortOnHeaderClick(userTable, userModel);
 
         JScrollPane scrollPane = new JScrollPane(userTable);
         styleScrollPane(scrollPane);
@@ -162,6 +184,8 @@ public class AdminDashboardUI extends JFrame {
         controlPanel.setOpaque(false);
         controlPanel.add(createIconButton("🔄 Refresh", "Refresh data", this::loadData));
         controlPanel.add(createIconButton("🗑️ Delete User", "Delete selected user", this::removeUser));
+        controlPanel.add(new JLabel("Filter:"));
+        controlPanel.add(createFilterField(userModel));
 
         panel.add(scrollPane, BorderLayout.CENTER);
         panel.add(controlPanel, BorderLayout.SOUTH);
@@ -189,6 +213,15 @@ public class AdminDashboardUI extends JFrame {
             }
         };
         styleTable(chatTable);
+        chatModel = new PagedTableModel<>(chatService::getChats,
+                new String[]{"Chat ID", "Chat Name", "Description", "Admin"},
+                new String[]{"chatId", "chatName", "description", "adminUsername"},
+                group -> new Object[]{group.chatId(), group.chatName(), group.description(),
+                        group.adminUsername() != null ? group.adminUsername() : "N/A"},
+                TABLE_PAGE_SIZE, TABLE_CACHED_PAGES,
+                e -> showError("Failed to load chats: " + e.getMessage()));
+        chatTable.setModel(chatModel);
+        sortOnHeaderClick(chatTable, chatModel);
 
         JScrollPane scrollPane = new JScrollPane(chatTable);
         styleScrollPane(scrollPane);
@@ -200,6 +233,9 @@ public class AdminDashboardUI extends JFrame {
         controlPanel.add(createIconButton("\uD83D\uDEAE Delete Chat Group", "Delete Existing Chat Group", this::deleteChat));
         controlPanel.add(createIconButton("\uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC66\u200D\uD83D\uDC66 Add Group Members", "Add users to Chat Group", this::createChatUser));
         controlPanel.add(createIconButton("\uD83D\uDD75\uFE0F\u200D♀\uFE0F View / Remove Group Members", "View and Remove users from Chat Group", this::manageGroupUsers));
+        controlPanel.add(createIconButton("\uD83D\uDD0D Search Messages", "Search messages of all Chat Groups", this::searchMessages));
+        controlPanel.add(new JLabel("Filter:"));
+        controlPanel.add(createFilterField(chatModel));
 
         panel.add(scrollPane, BorderLayout.CENTER);
         panel.add(controlPanel, BorderLayout.SOUTH);
@@ -234,6 +270,13 @@ public class AdminDashboardUI extends JFrame {
         adminChatArea.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         JScrollPane chatScroll = new JScrollPane(adminChatArea);
         styleScrollPane(chatScroll);
+        adminChatScroll = chatScroll;
+        JScrollBar chatBar = chatScroll.getVerticalScrollBar();
+        chatBar.addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting() && e.getValue() == 0 && chatBar.getMaximum() > chatBar.getVisibleAmount()) {
+                SwingUtilities.invokeLater(this::loadOlderMessages);
+            }
+        });
 
 
         // Input panel
@@ -262,12 +305,17 @@ public class AdminDashboardUI extends JFrame {
             adminObserver = new ChatObserver() {
                 @Override
                 public void notifyNewMessage(String message, int chatId) throws RemoteException {
-                    if (currentGroupId == chatId) {
-                        SwingUtilities.invokeLater(() -> {
-                            adminChatArea.append(message + "\n");
-                            adminChatArea.setCaretPosition(adminChatArea.getDocument().getLength());
-                        });
-                    }
+                    notifyMessages(List.of(MessageView.notice(chatId, message)), chatId);
+                }
+
+                @Override
+                public void notifyMessages(List<MessageView> messages, int chatId) throws RemoteException {
+                    SwingUtilities.invokeLater(() -> appendMessages(messages, chatId));
+                }
+
+                @Override
+                public void notifyPresence(PresenceEvent event) throws RemoteException {
+                    SwingUtilities.invokeLater(() -> appendPresence(event));
                 }
             };
 
@@ -287,12 +335,17 @@ public class AdminDashboardUI extends JFrame {
             adminObserver = new ChatObserver() {
                 @Override
                 public void notifyNewMessage(String message, int chatId) throws RemoteException {
-                    if (currentGroupId == chatId) {
-                        SwingUtilities.invokeLater(() -> {
-                            adminChatArea.append(message + "\n");
-                            adminChatArea.setCaretPosition(adminChatArea.getDocument().getLength());
-                        });
-                    }
+                    notifyMessages(List.of(MessageView.notice(chatId, message)), chatId);
+                }
+
+                @Override
+                public void notifyMessages(List<MessageView> messages, int chatId) throws RemoteException {
+                    SwingUtilities.invokeLater(() -> appendMessages(messages, chatId));
+                }
+
+                @Override
+                public void notifyPresence(PresenceEvent event) throws RemoteException {
+                    SwingUtilities.invokeLater(() -> appendPresence(event));
                 }
             };
 
@@ -334,10 +387,10 @@ public class AdminDashboardUI extends JFrame {
     private void loadAdminGroups() {
         try {
             adminGroupButtonPanel.removeAll();
-            List<ChatGroup> groups = chatService.getAllChats();
+            List<GroupSummary> groups = chatService.getAllChats();
 
-            for (ChatGroup group : groups) {
-                JButton groupBtn = new JButton(group.getChatName());
+            for (GroupSummary group : groups) {
+                JButton groupBtn = new JButton(group.chatName());
                 styleGroupButton(groupBtn);
                 groupBtn.addActionListener(e -> {
                     if (adminObserverStub == null) {
@@ -345,7 +398,7 @@ public class AdminDashboardUI extends JFrame {
                         return;
                     }
                     selectedAdminGroup = group;
-                    handleGroupSelection(group.getChatId());
+                    handleGroupSelection(group.chatId());
                     highlightSelectedButton(groupBtn);
                 });
                 adminGroupButtonPanel.add(groupBtn);
@@ -357,7 +410,7 @@ public class AdminDashboardUI extends JFrame {
 
             if (!groups.isEmpty()) {
                 selectedAdminGroup = groups.get(0);
-                handleGroupSelection(selectedAdminGroup.getChatId());
+                handleGroupSelection(selectedAdminGroup.chatId());
             }
         } catch (RemoteException e) {
             showError("Failed to load groups: " + e.getMessage());
@@ -433,14 +486,44 @@ public class AdminDashboardUI extends JFrame {
 
 
 
+    // Runs on the EDT, skips what the loaded history already shows
+    private void appendMessages(List<MessageView> messages, int chatId) {
+        if (currentGroupId != chatId) {
+            return;
+        }
+        for (MessageView msg : messages) {
+            if (!msg.isNotice()) {
+                if (msg.sequence() <= lastSequence) {
+                    continue;
+                }
+                lastSequence = msg.sequence();
+            }
+            adminChatArea.append(formatMessage(msg) + "\n");
+        }
+        adminChatArea.setCaretPosition(adminChatArea.getDocument().getLength());
+    }
+
+    // Runs on the EDT, presence is a status line and no part of the history
+    private void appendPresence(PresenceEvent event) {
+        if (currentGroupId != event.chatId()) {
+            return;
+        }
+        adminChatArea.append("-- " + event.text() + " --\n");
+        adminChatArea.setCaretPosition(adminChatArea.getDocument().getLength());
+    }
+
     // Modified loadGroupMessages method
     private void loadGroupMessages(int groupId) {
         try {
             adminChatArea.setText("");
-            List<ChatMessage> messages = chatService.getAllChatMessages(groupId);
-            for (ChatMessage msg : messages) {
+            lastSequence = 0;
+            List<MessageView> messages = chatService.getRecentMessages(groupId, HISTORY_PAGE_SIZE);
+            for (MessageView msg : messages) {
                 adminChatArea.append(formatMessage(msg) + "\n");
+                lastSequence = Math.max(lastSequence, msg.sequence());
             }
+            oldestMessageId = messages.isEmpty() ? 0 : messages.get(0).messageId();
+            hasOlderMessages = messages.size() == HISTORY_PAGE_SIZE;
             // Auto-scroll to bottom
             adminChatArea.setCaretPosition(adminChatArea.getDocument().getLength());
         } catch (RemoteException e) {
@@ -448,27 +531,37 @@ public class AdminDashboardUI extends JFrame {
         }
     }
 
-    // Updated formatMessage method
-    private String formatMessage(ChatMessage msg) {
-        try {
-            String username = msg.getUser().getUsername();
-            String rawMessage = msg.getMessage();
-
-            // Remove redundant username prefixes
-            String cleanedMessage = rawMessage.replaceAll("\\d{1,2}:\\d{2} [AP]M$", "").trim();
-            return String.format("[%s]  %s",
-                    msg.getStart_at().format(DateTimeFormatter.ofPattern("HH:mm")),
-                    cleanedMessage);
-        } catch (Exception e) {
-            return "[Error formatting message] " + msg.getMessage();
-        }
+    private String formatMessage(MessageView msg) {
+        String cleanedMessage = msg.body().replaceAll("\\d{1,2}:\\d{2} [AP]M$", "").trim();
+        return String.format("[%s]  %s", msg.timestamp().format(DateTimeFormatter.ofPattern("HH:mm")), cleanedMessage);
     }
 
+    // Prepends the next older page once the chat is scrolled to the top
+    private void loadOlderMessages() {
+        if (currentGroupId == -1 || !hasOlderMessages || oldestMessageId == 0) {
+            return;
+        }
+        try {
+            List<MessageView> older = chatService.getMessagesBefore(currentGroupId, oldestMessageId, HISTORY_PAGE_SIZE);
+            hasOlderMessages = older.size() == HISTORY_PAGE_SIZE;
+            if (older.isEmpty()) {
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            for (MessageView msg : older) {
+                text.append(formatMessage(msg)).append("\n");
+            }
+            oldestMessageId = older.get(0).messageId();
 
-
-
-
-
+            JScrollBar bar = adminChatScroll.getVerticalScrollBar();
+            int fromBottom = bar.getMaximum() - bar.getValue();
+            adminChatArea.insert(text.toString(), 0);
+            // Keep the line the admin was reading in place
+            SwingUtilities.invokeLater(() -> bar.setValue(bar.getMaximum() - fromBottom));
+        } catch (RemoteException e) {
+            showError("Failed to load messages: " + e.getMessage());
+        }
+    }
 
     private void styleGroupButton(JButton button) {
         button.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -564,6 +657,26 @@ public class AdminDashboardUI extends JFrame {
         table.getTableHeader().setDefaultRenderer(headerRenderer);
     }
 
+    // Header clicks sort on the server, the table itself keeps the model's row order
+    private void sortOnHeaderClick(JTable table, PagedTableModel<?> model) {
+        table.getTableHeader().addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                int column = table.columnAtPoint(evt.getPoint());
+                if (column >= 0) {
+                    model.toggleSort(table.convertColumnIndexToModel(column));
+                }
+            }
+        });
+    }
+
+    private JTextField createFilterField(PagedTableModel<?> model) {
+        JTextField filterField = new JTextField(15);
+        filterField.setToolTipText("Press Enter to filter");
+        filterField.addActionListener(e -> model.setFilter(filterField.getText()));
+        return filterField;
+    }
+
     private JButton createIconButton(String text, String tooltip, Runnable action) {
         JButton button = new JButton(text);
         button.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 14));
@@ -676,8 +789,12 @@ public class AdminDashboardUI extends JFrame {
                 showError("Please select a chat first!");
                 return;
             }
+            GroupSummary selected = chatModel.rowAt(selectedRow);
+            if (selected == null) {
+                return; // row still loading
+            }
 
-            int chatId = (Integer) chatTable.getValueAt(selectedRow, 0);
+            int chatId = selected.chatId();
 
             int confirm = JOptionPane.showConfirmDialog(
                     this,
@@ -699,24 +816,38 @@ public class AdminDashboardUI extends JFrame {
 
     private void createChatUser() {
         try {
-            // Fetch users and chat groups
-            List<User> users = chatService.getAllUsers();
-            List<ChatGroup> chatGroups = chatService.getAllChats();
+            // Fetch chat groups, users are looked up by name instead of listing all of them
+            List<GroupSummary> chatGroups = chatService.getAllChats();
 
             // Prepare combo boxes
-            JComboBox<User> userComboBox = new JComboBox<>(users.toArray(new User[0]));
-            JComboBox<ChatGroup> groupComboBox = new JComboBox<>(chatGroups.toArray(new ChatGroup[0]));
+            JComboBox<UserSummary> userComboBox = new JComboBox<>();
+            JComboBox<GroupSummary> groupComboBox = new JComboBox<>(chatGroups.toArray(new GroupSummary[0]));
+            JTextField userFilterField = new JTextField(20);
+            userFilterField.setToolTipText("Part of a username, email or nickname, press Enter to search");
+            Runnable findUsers = () -> {
+                try {
+                    userComboBox.removeAllItems();
+                    userService.getUsers(new PageRequest(0, USER_CHOICES, "username", false, userFilterField.getText()))
+                            .items().forEach(userComboBox::addItem);
+                } catch (RemoteException ex) {
+                    showError("Failed to find users: " + ex.getMessage());
+                }
+            };
+            userFilterField.addActionListener(e -> findUsers.run());
+            findUsers.run();
 
             // Render names instead of object toString
             userComboBox.setRenderer((list, value, index, isSelected, cellHasFocus) -> {
-                return new JLabel(value != null ? value.getUsername() + " (ID: " + value.getUser_id() + ")" : "");
+                return new JLabel(value != null ? value.username() + " (ID: " + value.userId() + ")" : "");
             });
 
             groupComboBox.setRenderer((list, value, index, isSelected, cellHasFocus) -> {
-                return new JLabel(value != null ? value.getChatName() + " (ID: " + value.getChatId() + ")" : "");
+                return new JLabel(value != null ? value.chatName() + " (ID: " + value.chatId() + ")" : "");
             });
 
             JPanel panel = new JPanel(new GridLayout(0, 1, 5, 5));
+            panel.add(new JLabel("Find User:"));
+            panel.add(userFilterField);
             panel.add(new JLabel("Select User:"));
             panel.add(userComboBox);
             panel.add(new JLabel("Select Chat Group:"));
@@ -725,11 +856,11 @@ public class AdminDashboardUI extends JFrame {
             int result = JOptionPane.showConfirmDialog(this, panel, "Assign User to Group", JOptionPane.OK_CANCEL_OPTION);
 
             if (result == JOptionPane.OK_OPTION) {
-                User selectedUser = (User) userComboBox.getSelectedItem();
-                ChatGroup selectedGroup = (ChatGroup) groupComboBox.getSelectedItem();
+                UserSummary selectedUser = (UserSummary) userComboBox.getSelectedItem();
+                GroupSummary selectedGroup = (GroupSummary) groupComboBox.getSelectedItem();
 
                 if (selectedUser != null && selectedGroup != null) {
-                    chatService.addUserToGroup(selectedUser.getUser_id(), selectedGroup.getChatId());
+                    chatService.addUserToGroup(selectedUser.userId(), selectedGroup.chatId());
                     JOptionPane.showMessageDialog(this, "User added to group successfully!");
                     loadData();
                 } else {
@@ -750,7 +881,11 @@ public class AdminDashboardUI extends JFrame {
                 return;
             }
 
-            int userId = (Integer) userTable.getValueAt(selectedRow, 0);
+            UserSummary selected = userModel.rowAt(selectedRow);
+            if (selected == null) {
+                return; // row still loading
+            }
+            int userId = selected.userId();
 
             int confirm = JOptionPane.showConfirmDialog(
                     this,
@@ -777,20 +912,24 @@ public class AdminDashboardUI extends JFrame {
                 showError("Please select a chat group first!");
                 return;
             }
+            GroupSummary selected = chatModel.rowAt(selectedRow);
+            if (selected == null) {
+                return; // row still loading
+            }
 
-            int chatId = (Integer) chatTable.getValueAt(selectedRow, 0);
-            List<User> groupUsers = chatService.getUsersInChat(chatId);
+            int chatId = selected.chatId();
+            List<UserSummary> groupUsers = chatService.getUsersInChat(chatId);
 
             JPanel userListPanel = new JPanel();
             userListPanel.setLayout(new BoxLayout(userListPanel, BoxLayout.Y_AXIS));
 
-            for (User user : groupUsers) {
+            for (UserSummary user : groupUsers) {
                 JPanel userPanel = new JPanel(new BorderLayout());
                 userPanel.setBorder(new EmptyBorder(5, 5, 5, 5));
 
-                JLabel userLabel = new JLabel(user.getUsername() + " (" + user.getEmail() + ")");
+                JLabel userLabel = new JLabel(user.username() + " (" + user.email() + ")");
                 JButton removeButton = new JButton("Remove");
-                removeButton.addActionListener(e -> removeUserFromChat(user.getUser_id(), chatId));
+                removeButton.addActionListener(e -> removeUserFromChat(user.userId(), chatId));
 
                 userPanel.add(userLabel, BorderLayout.CENTER);
                 userPanel.add(removeButton, BorderLayout.EAST);
@@ -801,7 +940,7 @@ public class AdminDashboardUI extends JFrame {
             scrollPane.setPreferredSize(new Dimension(400, 300));
 
             JOptionPane.showMessageDialog(this, scrollPane,
-                    "Manage Users in " + chatTable.getValueAt(selectedRow, 1),
+                    "Manage Users in " + selected.chatName(),
                     JOptionPane.PLAIN_MESSAGE);
 
         } catch (RemoteException e) {
@@ -809,6 +948,61 @@ public class AdminDashboardUI extends JFrame {
         }
     }
 
+    private void searchMessages() {
+        try {
+            List<GroupSummary> chatGroups = chatService.getAllChats();
+
+            JTextField queryField = new JTextField(25);
+            JComboBox<GroupSummary> groupComboBox = new JComboBox<>();
+            groupComboBox.addItem(null);
+            chatGroups.forEach(groupComboBox::addItem);
+            groupComboBox.setRenderer((list, value, index, isSelected, cellHasFocus) ->
+                    new JLabel(value != null ? value.chatName() + " (ID: " + value.chatId() + ")" : "All groups"));
+            JComboBox<String> periodComboBox = new JComboBox<>(new String[]{"Any time", "Last 24 hours", "Last 7 days", "Last 30 days"});
+
+            JPanel panel = new JPanel(new GridLayout(0, 1, 5, 5));
+            panel.add(new JLabel("Words to find:"));
+            panel.add(queryField);
+            panel.add(new JLabel("Chat Group:"));
+            panel.add(groupComboBox);
+            panel.add(new JLabel("Sent:"));
+            panel.add(periodComboBox);
+
+            int result = JOptionPane.showConfirmDialog(this, panel, "Search Messages", JOptionPane.OK_CANCEL_OPTION);
+            if (result != JOptionPane.OK_OPTION || queryField.getText().isBlank()) {
+                return;
+            }
+
+            GroupSummary group = (GroupSummary) groupComboBox.getSelectedItem();
+            LocalDateTime from = switch (periodComboBox.getSelectedIndex()) {
+                case 1 -> LocalDateTime.now().minusDays(1);
+                case 2 -> LocalDateTime.now().minusDays(7);
+                case 3 -> LocalDateTime.now().minusDays(30);
+                default -> null;
+            };
+            List<MessageView> messages = chatService.searchMessages(queryField.getText(),
+                    group != null ? group.chatId() : null, from, null, SEARCH_RESULT_LIMIT);
+
+            StringBuilder text = new StringBuilder();
+            for (MessageView message : messages) {
+                text.append("[").append(message.timestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
+                        .append("] (Group ").append(message.chatId()).append(")  ")
+                        .append(message.body()).append("\n");
+            }
+            JTextArea resultArea = new JTextArea(messages.isEmpty() ? "No messages found." : text.toString());
+            resultArea.setEditable(false);
+            resultArea.setLineWrap(true);
+            resultArea.setWrapStyleWord(true);
+            JScrollPane scrollPane = new JScrollPane(resultArea);
+            scrollPane.setPreferredSize(new Dimension(550, 350));
+
+            JOptionPane.showMessageDialog(this, scrollPane,
+                    messages.size() + " message(s) found", JOptionPane.PLAIN_MESSAGE);
+        } catch (RemoteException e) {
+            showError("Error searching messages: " + e.getMessage());
+        }
+    }
+
     private void removeUserFromChat(int userId, int chatId) {
         try {
             int confirm = JOptionPane.showConfirmDialog(
@@ -826,41 +1020,10 @@ public class AdminDashboardUI extends JFrame {
         }
     }
 
+    // Tables only fetch the pages that get painted, see PagedTableModel
     private void loadData() {
-        try {
-            // Load users
-            List<User> users = userService.getAllUsers();
-            String[] userColumns = {"User ID", "Email", "Nickname", "Role", "Username"};
-            DefaultTableModel userModel = new DefaultTableModel(userColumns, 0);
-            for (User user : users) {
-                userModel.addRow(new Object[]{
-                        user.getUser_id(),
-                        user.getEmail(),
-                        user.getNickname(),
-                        user.getRole(),
-                        user.getUsername()
-                });
-            }
-            userTable.setModel(userModel);
-
-            // Load chats
-            List<ChatGroup> chatGroups = chatService.getAllChats();
-            String[] chatColumns = {"Chat ID", "Chat Name", "Description", "Admin"};
-            DefaultTableModel chatModel = new DefaultTableModel(chatColumns, 0);
-            for (ChatGroup chatGroup : chatGroups) {
-                chatModel.addRow(new Object[]{
-                        chatGroup.getChatId(),
-                        chatGroup.getChatName(),
-                        chatGroup.getDescription(),
-                        chatGroup.getAdmin() != null ? chatGroup.getAdmin().getUsername() : "N/A"
-                });
-            }
-            chatTable.setModel(chatModel);
-            chatTable.repaint();
-
-        } catch (RemoteException e) {
-            showError("Failed to load data: " + e.getMessage());
-        }
+        userModel.reload();
+        chatModel.reload();
     }
 
     // Profile-related fields
@@ -0,0 +1,190 @@
+package org.example.client.admin;
+
+import org.example.dto.Page;
+import org.example.dto.PageRequest;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Table model over a server-side list that is only fetched page by page.
+ * A page is requested in the background the first time one of its rows is
+ * painted and stays cached until it is the least recently used of more than
+ * {@code maxCachedPages}. Sorting or filtering drops the cache and reads the
+ * list again from the server.
+ * <p>
+ * A page that failed to load is not requested again until the next
+ * reload, and only the first failure of a reload is reported; otherwise
+ * every repaint behind an error dialog would fetch and fail once more.
+ * <p>
+ * Only used on the EDT.
+ */
+public class PagedTableModel<T extends Serializable> extends AbstractTableModel {
+
+    public interface PageLoader<T extends Serializable> {
+        Page<T> load(PageRequest request) throws RemoteException;
+    }
+
+    private final PageLoader<T> loader;
+    private final String[] columnNames;
+    private final String[] sortKeys;
+    private final Function<T, Object[]> toRow;
+    private final Consumer<Exception> onError;
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    private final Set<Integer> failed = new HashSet<>();
+    private int rowCount;
+    private int sortColumn = -1;
+    private boolean descending;
+    private String filter;
+    private int generation; // pages requested before the last reload are dropped on arrival
+
+    /**
+     * @param sortKeys the server's sort name of every column, see {@link PageRequest#sortBy()}
+     * @param toRow    the cell values of a row, in column order
+     */
+    public PagedTableModel(PageLoader<T> loader, String[] columnNames, String[] sortKeys,
+                           Function<T, Object[]> toRow, int pageSize, int maxCachedPages,
+                           Consumer<Exception> onError) {
+        this.loader = loader;
+        this.columnNames = columnNames;
+        this.sortKeys = sortKeys;
+        this.toRow = toRow;
+        this.pageSize = pageSize;
+        this.onError = onError;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Drops every cached page and reads the first one again, keeping the
+     * current sort and filter.
+     */
+    public void reload() {
+        generation++;
+        pages.clear();
+        loading.clear();
+        failed.clear();
+        fetch(0);
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter;
+        reload();
+    }
+
+    /**
+     * Sorts by the column, a second call on the same column reverses the order.
+     */
+    public void toggleSort(int column) {
+        descending = column == sortColumn && !descending;
+        sortColumn = column;
+        fireTableStructureChanged(); // header shows the new sort arrow
+        reload();
+    }
+
+    /**
+     * @return the row's item, or {@code null} while its page is still loading
+     */
+    public T rowAt(int row) {
+        List<T> page = pageOf(row);
+        int index = row % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column == sortColumn ? columnNames[column] + (descending ? " ▼" : " ▲") : columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T item = rowAt(row);
+        return item != null ? toRow.apply(item)[column] : (column == 0 ? "…" : null);
+    }
+
+    private List<T> pageOf(int row) {
+        int pageIndex = row / pageSize;
+        List<T> page = pages.get(pageIndex);
+        if (page == null && !failed.contains(pageIndex)) {
+            fetch(pageIndex);
+        }
+        return page;
+    }
+
+    private void fetch(int pageIndex) {
+        if (!loading.add(pageIndex)) {
+            return;
+        }
+        int requestedIn = generation;
+        PageRequest request = new PageRequest(pageIndex * pageSize, pageSize,
+                sortColumn >= 0 ? sortKeys[sortColumn] : null, descending, filter);
+        new SwingWorker<Page<T>, Void>() {
+            @Override
+            protected Page<T> doInBackground() throws RemoteException {
+                return loader.load(request);
+            }
+
+            @Override
+            protected void done() {
+                if (requestedIn != generation) {
+                    return;
+                }
+                loading.remove(pageIndex);
+                try {
+                    arrived(pageIndex, get());
+                } catch (Exception e) {
+                    boolean first = failed.isEmpty();
+                    failed.add(pageIndex);
+                    if (first) {
+                        onError.accept(e);
+                    }
+                }
+            }
+        }.execute();
+    }
+
+    private void arrived(int pageIndex, Page<T> page) {
+        pages.put(pageIndex, page.items());
+        int total = (int) Math.min(page.total(), Integer.MAX_VALUE);
+        if (total != rowCount) {
+            // Rows were added or removed on the server, every cached page may have shifted
+            boolean stale = pages.size() > 1;
+            rowCount = total;
+            if (stale) {
+                pages.keySet().removeIf(index -> index != pageIndex);
+            }
+            fireTableDataChanged();
+            return;
+        }
+        int first = pageIndex * pageSize;
+        int last = Math.min(first + pageSize, rowCount) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
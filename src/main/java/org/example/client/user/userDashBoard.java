@@ -1,6 +1,9 @@
 package org.example.client.user;
 
 import org.example.domain.*;
+import org.example.dto.GroupSummary;
+import org.example.dto.MessageView;
+import org.example.dto.PresenceEvent;
 import org.example.rmi.ChatLogService;
 import org.example.rmi.ChatObserver;
 import org.example.rmi.ChatService;
@@ -56,8 +59,14 @@ public class userDashBoard {
     private ChatLogService logService;
     private ChatLog chatLog;
     private User user;
-    private ChatGroup chatGroup;
+    private GroupSummary chatGroup;
     private User currentUser;
+    private ChatObserver stub;
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private long lastSequence; // highest message sequence shown for chatGroup
+    private long oldestMessageId; // cursors of the history shown for chatGroup
+    private long newestMessageId;
+    private boolean hasOlderMessages;
 
     public userDashBoard(ChatService chatService, UserService userService, ChatLogService logService, ChatLog chatLog, User user) {
         this.chatService = chatService;
@@ -71,7 +80,7 @@ public class userDashBoard {
 
         // auto-select first chat group if available
         try {
-            List<ChatGroup> groups = userService.getGroupDataByUserId(user.getUser_id());
+            List<GroupSummary> groups = userService.getGroupDataByUserId(user.getUser_id());
             if (!groups.isEmpty()) {
 
                 chatGroup = groups.get(0);
@@ -454,25 +463,32 @@ public class userDashBoard {
 
         ChatObserver observer = new ChatObserver() {
             public void notifyNewMessage(String message, int chatId) throws RemoteException {
-                System.out.println("Int: "+chatId+"  Object: "+chatGroup.getChatId());
-                if(chatId == chatGroup.getChatId()){
-
-                    List<ChatMessage> messages = chatService.getAllChatMessages(chatGroup.getChatId());
-                    for(ChatMessage msg : messages){
-                        SwingUtilities.invokeLater(() -> {
-                            if (!textArea1.getText().contains(msg.getMessage())) {
-                                textArea1.append(msg.getMessage() + "\n");
-                            }
-                        });
-                    }
-                }
+                notifyMessages(List.of(MessageView.notice(chatId, message)), chatId);
+            }
+
+            // The pushed messages are appended as they are, history is only fetched again after a gap
+            public void notifyMessages(List<MessageView> batch, int chatId) throws RemoteException {
+                SwingUtilities.invokeLater(() -> appendMessages(batch, chatId));
+            }
+
+            public void notifyPresence(PresenceEvent event) throws RemoteException {
+                SwingUtilities.invokeLater(() -> appendPresence(event));
             }
         };
 
         // add observer to the list [add new user]
-        ChatObserver stub = (ChatObserver) UnicastRemoteObject.exportObject(observer, 0);
+        stub = (ChatObserver) UnicastRemoteObject.exportObject(observer, 0);
         chatLog = logService.login(user.getUser_id());
-        chatService.subscribe(user, stub, chatLog, chatGroup.getChatId());
+        chatService.subscribe(user, stub, chatLog, chatGroup.chatId());
+
+        JScrollBar chatBar = chatScrollBar();
+        if (chatBar != null) {
+            chatBar.addAdjustmentListener(e -> {
+                if (!e.getValueIsAdjusting() && e.getValue() == 0 && chatBar.getMaximum() > chatBar.getVisibleAmount()) {
+                    SwingUtilities.invokeLater(this::loadOlderMessages);
+                }
+            });
+        }
 
         // Make the frame visible after all setup is done
         frame.setVisible(true);
@@ -499,14 +515,14 @@ public class userDashBoard {
                     String msg = msgFeild.getText().trim();
                     if (!msg.isEmpty()) {
                         if (logService.isUserOnline(user.getUser_id())) {
-                            chatService.sendMessage(msg, user, chatGroup.getChatId());
+                            chatService.sendMessage(msg, user, chatGroup.chatId());
                         } else {
                             System.out.println("User session has ended. Cannot send message.");
                         }
 
                         if (msg.equalsIgnoreCase("Bye")) {
                             chatLog = logService.logout(user.getUser_id());
-                            chatService.unsubscribe(user, stub, chatLog, chatGroup.getChatId());
+                            chatService.unsubscribe(user, stub, chatLog, chatGroup.chatId());
                         }
 
                         msgFeild.setText("");
@@ -523,7 +539,7 @@ public class userDashBoard {
                 try {
                     chatLog = logService.logout(user.getUser_id());
                     if (chatLog != null) {
-                        chatService.unsubscribe(user, stub, chatLog, chatGroup.getChatId());
+                        chatService.unsubscribe(user, stub, chatLog, chatGroup.chatId());
                         System.out.println("User logged out and unsubscribed.");
                     }
                 } catch (RemoteException e) {
@@ -540,25 +556,16 @@ public class userDashBoard {
             groupButtonPanel.setLayout(new BoxLayout(groupButtonPanel, BoxLayout.Y_AXIS));
             groupList.setViewportView(groupButtonPanel);
             //List<String> groupNames = userService.getGroupDataByUserId(user.getUser_id());
-            List<ChatGroup> groups = userService.getGroupDataByUserId(user.getUser_id());
+            List<GroupSummary> groups = userService.getGroupDataByUserId(user.getUser_id());
 
             groupButtonPanel.removeAll(); // Clear existing buttons
-            for (ChatGroup group : groups) {
-                JButton groupBtn = new JButton(group.getChatName());
+            for (GroupSummary group : groups) {
+                JButton groupBtn = new JButton(group.chatName());
                 groupBtn.addActionListener(e -> {
+                    switchSubscription(group);
                     chatGroup = group;
 
-                    // Clear previous messages
-                    textArea1.setText("");
-
-                    try {
-                        List<ChatMessage> messages = chatService.getAllChatMessages(chatGroup.getChatId());
-                        for (ChatMessage msg : messages) {
-                            textArea1.append(msg.getMessage() + "\n");
-                        }
-                    } catch (RemoteException ex) {
-                        ex.printStackTrace();
-                    }
+                    reloadHistory();
 
                     tabbedPane1.setSelectedComponent(chatPane);
                 });
@@ -573,5 +580,126 @@ public class userDashBoard {
         }
     }
 
+    // Runs on the EDT, the history cursors are only touched there
+    private void appendMessages(List<MessageView> batch, int chatId) {
+        if (chatGroup == null || chatId != chatGroup.chatId()) {
+            return;
+        }
+        for (MessageView msg : batch) {
+            if (!msg.isNotice()) {
+                if (msg.sequence() <= lastSequence) {
+                    continue; // already part of the loaded history
+                }
+                if (lastSequence > 0 && msg.sequence() > lastSequence + 1) {
+                    resyncHistory();
+                    return;
+                }
+                lastSequence = msg.sequence();
+                newestMessageId = msg.messageId();
+                if (oldestMessageId == 0) {
+                    oldestMessageId = msg.messageId();
+                }
+            }
+            textArea1.append(msg.body() + "\n");
+        }
+    }
+
+    // Shown as a status line between the messages, it does not count towards the history cursors
+    private void appendPresence(PresenceEvent event) {
+        if (chatGroup == null || event.chatId() != chatGroup.chatId()) {
+            return;
+        }
+        textArea1.append("-- " + event.text() + " --\n");
+    }
+
+    private void reloadHistory() {
+        // Clear previous messages
+        textArea1.setText("");
+        lastSequence = 0;
+        oldestMessageId = 0;
+        newestMessageId = 0;
+        hasOlderMessages = true;
+
+        try {
+            List<MessageView> messages = chatService.getRecentMessages(chatGroup.chatId(), HISTORY_PAGE_SIZE);
+            appendHistory(messages);
+            hasOlderMessages = messages.size() == HISTORY_PAGE_SIZE;
+        } catch (RemoteException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // Fetches what was missed after the newest shown message, a long outage reloads the recent page instead
+    private void resyncHistory() {
+        try {
+            List<MessageView> missed = chatService.getMessagesSince(chatGroup.chatId(), newestMessageId, HISTORY_PAGE_SIZE);
+            if (newestMessageId == 0 || missed.size() == HISTORY_PAGE_SIZE) {
+                reloadHistory();
+            } else {
+                appendHistory(missed);
+            }
+        } catch (RemoteException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void appendHistory(List<MessageView> messages) {
+        for (MessageView msg : messages) {
+            textArea1.append(msg.body() + "\n");
+            lastSequence = Math.max(lastSequence, msg.sequence());
+            newestMessageId = msg.messageId();
+            if (oldestMessageId == 0) {
+                oldestMessageId = msg.messageId();
+            }
+        }
+    }
+
+    // Prepends the next older page once the chat is scrolled to the top
+    private void loadOlderMessages() {
+        if (chatGroup == null || !hasOlderMessages || oldestMessageId == 0) {
+            return;
+        }
+        try {
+            List<MessageView> older = chatService.getMessagesBefore(chatGroup.chatId(), oldestMessageId, HISTORY_PAGE_SIZE);
+            hasOlderMessages = older.size() == HISTORY_PAGE_SIZE;
+            if (older.isEmpty()) {
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            for (MessageView msg : older) {
+                text.append(msg.body()).append("\n");
+            }
+            oldestMessageId = older.get(0).messageId();
+
+            JScrollBar bar = chatScrollBar();
+            int fromBottom = bar != null ? bar.getMaximum() - bar.getValue() : 0;
+            textArea1.insert(text.toString(), 0);
+            if (bar != null) {
+                // Keep the line the user was reading in place
+                SwingUtilities.invokeLater(() -> bar.setValue(bar.getMaximum() - fromBottom));
+            }
+        } catch (RemoteException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private JScrollBar chatScrollBar() {
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, textArea1);
+        return scrollPane != null ? scrollPane.getVerticalScrollBar() : null;
+    }
+
+    // Observers are registered per chat, so move the subscription along with the selected group
+    private void switchSubscription(GroupSummary group) {
+        if (stub == null || chatGroup == null || chatGroup.chatId() == group.chatId()) {
+            return;
+        }
+        try {
+            chatService.unsubscribeFromChat(user, stub, null, chatGroup.chatId());
+            chatService.subscribe(user, stub, chatLog, group.chatId());
+        } catch (RemoteException ex) {
+            ex.printStackTrace();
+        }
+    }
+
 
 }
\ No newline at end of file
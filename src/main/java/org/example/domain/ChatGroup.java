@@ -17,7 +17,7 @@ public class ChatGroup implements Serializable {
     private String chatName;
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "admin_id", foreignKey = @ForeignKey(name = "FK_admin"))
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User admin;
@@ -1,20 +1,26 @@
 package org.example.domain;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import org.example.domain.id.SnowflakeId;
+import org.example.dto.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+// Sent with every subscribe and unsubscribe, written field by field over RMI
 @Entity
-public class ChatLog  implements Serializable {
+public class ChatLog  implements Externalizable {
     private static final long serialVersionUID = 1L;
+    private static final int WIRE_VERSION = 1;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private int chat_id;
+    @SnowflakeId
+    private long chat_id;
     private int user_id;
     private LocalDateTime start_time;
     private LocalDateTime end_time;
@@ -23,11 +29,11 @@ public class ChatLog  implements Serializable {
     public ChatLog() {
     }
 
-    public int getChat_id() {
+    public long getChat_id() {
         return chat_id;
     }
 
-    public void setChat_id(int chat_id) {
+    public void setChat_id(long chat_id) {
         this.chat_id = chat_id;
     }
 
@@ -63,6 +69,29 @@ public class ChatLog  implements Serializable {
         this.chatFilePath = chatFilePath;
     }
 
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(WIRE_VERSION);
+        out.writeLong(chat_id); // snowflake ids use all the bits, a varint would be longer
+        WireFormat.writeVarLong(out, user_id);
+        WireFormat.writeTime(out, start_time);
+        WireFormat.writeTime(out, end_time);
+        WireFormat.writeString(out, chatFilePath);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readByte();
+        if (version != WIRE_VERSION) {
+            throw new InvalidObjectException("Unknown chat log version " + version);
+        }
+        chat_id = in.readLong();
+        user_id = (int) WireFormat.readVarLong(in);
+        start_time = WireFormat.readTime(in);
+        end_time = WireFormat.readTime(in);
+        chatFilePath = WireFormat.readString(in);
+    }
+
     @Override
     public String toString() {
         return "Chat{" +
@@ -1,6 +1,7 @@
 package org.example.domain;
 
 import jakarta.persistence.*;
+import org.example.domain.id.SnowflakeId;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -8,20 +9,24 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_message")
+@Table(name = "chat_message", indexes = {
+        // Keyset pagination of a room's history walks message ids within one chat
+        @Index(name = "idx_chat_message_chat_id_message_id", columnList = "chat_id, message_id")
+})
 public class ChatMessage implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // Generated before insert and ordered by time, IDENTITY would rule out JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private int message_id;
+    @SnowflakeId
+    private long message_id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "chat_id", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private ChatGroup chatGroup;
@@ -32,12 +37,16 @@ public class ChatMessage implements Serializable {
     @Column(name = "start_at", nullable = false)
     private LocalDateTime start_at;
 
+    // Position within the chat, rows written before sequencing was added have none
+    @Column(name = "seq")
+    private Long seq;
 
-    public int getMessage_id() {
+
+    public long getMessage_id() {
         return message_id;
     }
 
-    public void setMessage_id(int message_id) {
+    public void setMessage_id(long message_id) {
         this.message_id = message_id;
     }
 
@@ -73,6 +82,14 @@ public class ChatMessage implements Serializable {
         this.start_at = start_at;
     }
 
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
     @Override
     public String toString() {
         return "ChatMessage{" +
@@ -81,6 +98,7 @@ public class ChatMessage implements Serializable {
                 ", chatGroup=" + chatGroup +
                 ", message='" + message + '\'' +
                 ", start_at=" + start_at +
+                ", seq=" + seq +
                 '}';
     }
 }
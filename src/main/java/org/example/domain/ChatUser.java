@@ -13,14 +13,14 @@ public class ChatUser implements Serializable {
     @EmbeddedId
     private ChatUserId id = new ChatUserId();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("userId")
     @JoinColumn(name = "user_id", referencedColumnName = "user_id",
             foreignKey = @ForeignKey(name = "FK_chat_user"))
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("groupId")
     @JoinColumn(name = "group_id", referencedColumnName = "chatId",
             foreignKey = @ForeignKey(name = "FK_chat_group"))
@@ -1,15 +1,23 @@
 package org.example.domain;
 
 import jakarta.persistence.*;
+import org.example.dto.WireFormat;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.List;
 
+// Goes over RMI with every call a client makes, only its own columns are written
+// and the relationship lists arrive empty
 @Entity
-public class User implements Serializable {
+public class User implements Externalizable {
     private static final long serialVersionUID = 1L;
+    private static final int WIRE_VERSION = 1;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -118,4 +126,31 @@ public class User implements Serializable {
     public void setMessages(List<ChatMessage> messages) {
         this.messages = messages;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(WIRE_VERSION);
+        WireFormat.writeVarLong(out, user_id);
+        WireFormat.writeString(out, email);
+        WireFormat.writeString(out, username);
+        WireFormat.writeString(out, password);
+        WireFormat.writeString(out, nickname);
+        WireFormat.writeString(out, profilePicture);
+        WireFormat.writeString(out, role);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readByte();
+        if (version != WIRE_VERSION) {
+            throw new InvalidObjectException("Unknown user version " + version);
+        }
+        user_id = (int) WireFormat.readVarLong(in);
+        email = WireFormat.readString(in);
+        username = WireFormat.readString(in);
+        password = WireFormat.readString(in);
+        nickname = WireFormat.readString(in);
+        profilePicture = WireFormat.readString(in);
+        role = WireFormat.readString(in);
+    }
+}
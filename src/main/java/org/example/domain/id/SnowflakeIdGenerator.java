@@ -0,0 +1,29 @@
+package org.example.domain.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.IdentifierGenerator;
+
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return Snowflake.shared().nextId();
+    }
+
+    // An id taken from Snowflake before persisting is kept, callers can hand it out before the insert
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        if (assigned instanceof Long id && id != 0) {
+            return id;
+        }
+        return generate(session, owner);
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
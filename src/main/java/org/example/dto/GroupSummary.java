@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import java.io.Serializable;
+
+/**
+ * A chat group as listed to clients, with its admin flattened to id and
+ * username. {@code adminId} is null for a group without an admin.
+ */
+public record GroupSummary(
+        int chatId,
+        String chatName,
+        String description,
+        Integer adminId,
+        String adminUsername
+) implements Serializable {
+}
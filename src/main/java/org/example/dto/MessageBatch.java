@@ -0,0 +1,159 @@
+package org.example.dto;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serial;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of chat lines that goes over RMI in a compact binary form
+ * instead of one serialized record per line. Message ids, sequences and
+ * timestamps are sent as the difference to the previous line, the chat id
+ * only when it changes, every nickname once per batch and the
+ * "nickname: " prefix of a body is not repeated.
+ * <p>
+ * Timestamps keep microseconds, like the database.
+ */
+public final class MessageBatch extends AbstractList<MessageView> implements RandomAccess, Externalizable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private static final int VERSION = 1;
+    private static final int OTHER_CHAT = 1;
+    private static final int PREFIXED_BODY = 2;
+    private static final int NO_NICKNAME = 4;
+    private static final int NO_TIMESTAMP = 8;
+
+    private MessageView[] messages;
+
+    /**
+     * For deserialization only.
+     */
+    public MessageBatch() {
+        this.messages = new MessageView[0];
+    }
+
+    public MessageBatch(List<MessageView> messages) {
+        this.messages = messages.toArray(new MessageView[0]);
+    }
+
+    /**
+     * The list itself if it already is a batch, a batch copy otherwise.
+     */
+    public static List<MessageView> of(List<MessageView> messages) {
+        return messages instanceof MessageBatch ? messages : new MessageBatch(messages);
+    }
+
+    @Override
+    public MessageView get(int index) {
+        return messages[index];
+    }
+
+    @Override
+    public int size() {
+        return messages.length;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(VERSION);
+        WireFormat.writeVarLong(out, messages.length);
+        Map<String, Integer> nicknames = new HashMap<>();
+        int chatId = 0;
+        long messageId = 0;
+        long sequence = 0;
+        long micros = 0;
+        for (MessageView message : messages) {
+            String nickname = message.nickname();
+            String body = message.body();
+            String prefix = nickname != null ? nickname + ": " : null;
+            int flags = (message.chatId() != chatId ? OTHER_CHAT : 0)
+                    | (prefix != null && body != null && body.startsWith(prefix) ? PREFIXED_BODY : 0)
+                    | (nickname == null ? NO_NICKNAME : 0)
+                    | (message.timestamp() == null ? NO_TIMESTAMP : 0);
+            out.writeByte(flags);
+            if ((flags & OTHER_CHAT) != 0) {
+                chatId = message.chatId();
+                WireFormat.writeVarLong(out, chatId);
+            }
+            WireFormat.writeSignedVarLong(out, message.messageId() - messageId);
+            messageId = message.messageId();
+            WireFormat.writeSignedVarLong(out, message.sequence() - sequence);
+            sequence = message.sequence();
+            WireFormat.writeVarLong(out, message.senderId());
+            if (nickname != null) {
+                // 0 introduces a new nickname, n refers to the n-th one of this batch
+                Integer known = nicknames.get(nickname);
+                WireFormat.writeVarLong(out, known != null ? known : 0);
+                if (known == null) {
+                    nicknames.put(nickname, nicknames.size() + 1);
+                    WireFormat.writeString(out, nickname);
+                }
+            }
+            WireFormat.writeString(out, (flags & PREFIXED_BODY) != 0 ? body.substring(prefix.length()) : body);
+            if (message.timestamp() != null) {
+                long time = WireFormat.toMicros(message.timestamp());
+                WireFormat.writeSignedVarLong(out, time - micros);
+                micros = time;
+            }
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unknown message batch version " + version);
+        }
+        long count = WireFormat.readVarLong(in);
+        if (count > Integer.MAX_VALUE) {
+            throw new InvalidObjectException("Message batch of " + count + " lines");
+        }
+        MessageView[] read = new MessageView[(int) count];
+        List<String> nicknames = new ArrayList<>();
+        int chatId = 0;
+        long messageId = 0;
+        long sequence = 0;
+        long micros = 0;
+        for (int i = 0; i < read.length; i++) {
+            int flags = in.readByte();
+            if ((flags & OTHER_CHAT) != 0) {
+                chatId = (int) WireFormat.readVarLong(in);
+            }
+            messageId += WireFormat.readSignedVarLong(in);
+            sequence += WireFormat.readSignedVarLong(in);
+            int senderId = (int) WireFormat.readVarLong(in);
+            String nickname = null;
+            if ((flags & NO_NICKNAME) == 0) {
+                int known = (int) WireFormat.readVarLong(in);
+                if (known == 0) {
+                    nickname = WireFormat.readString(in);
+                    nicknames.add(nickname);
+                } else if (known <= nicknames.size()) {
+                    nickname = nicknames.get(known - 1);
+                } else {
+                    throw new InvalidObjectException("Unknown nickname " + known);
+                }
+            }
+            String body = WireFormat.readString(in);
+            if ((flags & PREFIXED_BODY) != 0) {
+                body = nickname + ": " + body;
+            }
+            LocalDateTime timestamp = null;
+            if ((flags & NO_TIMESTAMP) == 0) {
+                micros += WireFormat.readSignedVarLong(in);
+                timestamp = WireFormat.fromMicros(micros);
+            }
+            read[i] = new MessageView(messageId, chatId, senderId, nickname, body, timestamp, sequence);
+        }
+        messages = read;
+    }
+}
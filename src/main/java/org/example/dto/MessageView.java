@@ -0,0 +1,44 @@
+package org.example.dto;
+
+import org.example.domain.ChatMessage;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A chat line as pushed to observers and returned by the history APIs.
+ * <p>
+ * {@code body} is the line as it is stored and shown, {@code sequence}
+ * increases by one per persisted message of a chat so a client can tell when
+ * it missed something. Server notices such as "Chat stopped" are not
+ * persisted and carry a message id and sequence of 0.
+ */
+public record MessageView(
+        long messageId,
+        int chatId,
+        int senderId,
+        String nickname,
+        String body,
+        LocalDateTime timestamp,
+        long sequence
+) implements Serializable {
+
+    public static MessageView of(ChatMessage message) {
+        return new MessageView(
+                message.getMessage_id(),
+                message.getChatGroup().getChatId(),
+                message.getUser().getUser_id(),
+                message.getUser().getNickname(),
+                message.getMessage(),
+                message.getStart_at(),
+                message.getSeq() != null ? message.getSeq() : 0);
+    }
+
+    public static MessageView notice(int chatId, String text) {
+        return new MessageView(0, chatId, 0, null, text, LocalDateTime.now(), 0);
+    }
+
+    public boolean isNotice() {
+        return messageId == 0;
+    }
+}
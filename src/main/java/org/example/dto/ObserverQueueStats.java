@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import java.io.Serializable;
+
+/**
+ * Outbound queue of one subscription, as seen by the server. A depth close
+ * to the capacity means the client is not keeping up with its room.
+ */
+public record ObserverQueueStats(
+        int chatId,
+        int userId,
+        String nickname,
+        int depth,
+        int capacity,
+        long delivered,
+        long callbacks,
+        long dropped,
+        long failed
+) implements Serializable {
+}
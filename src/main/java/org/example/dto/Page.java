@@ -0,0 +1,15 @@
+package org.example.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Rows {@code offset} to {@code offset + items.size()} of a list together
+ * with the number of rows the whole list had when the page was read.
+ */
+public record Page<T extends Serializable>(
+        List<T> items,
+        int offset,
+        long total
+) implements Serializable {
+}
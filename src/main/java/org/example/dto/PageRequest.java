@@ -0,0 +1,22 @@
+package org.example.dto;
+
+import java.io.Serializable;
+
+/**
+ * One page of a server-side list. {@code sortBy} names a field of the
+ * listed summary record, an unknown or null name sorts by id.
+ * {@code filter} keeps rows containing the text, ignoring case, in any of
+ * the searched columns; null or blank keeps every row.
+ */
+public record PageRequest(
+        int offset,
+        int limit,
+        String sortBy,
+        boolean descending,
+        String filter
+) implements Serializable {
+
+    public static PageRequest of(int offset, int limit) {
+        return new PageRequest(offset, limit, null, false, null);
+    }
+}
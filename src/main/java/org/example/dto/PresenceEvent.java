@@ -0,0 +1,39 @@
+package org.example.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A member joining or leaving a chat. Presence is only pushed to the
+ * observers in the chat at that moment; it is never stored and never shows
+ * up in the history or the archive.
+ */
+public record PresenceEvent(
+        int chatId,
+        int userId,
+        String nickname,
+        Kind kind,
+        LocalDateTime timestamp
+) implements Serializable {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("hh:mm a");
+
+    public enum Kind {
+        JOINED, LEFT
+    }
+
+    public static PresenceEvent joined(int chatId, int userId, String nickname) {
+        return new PresenceEvent(chatId, userId, nickname, Kind.JOINED, LocalDateTime.now());
+    }
+
+    public static PresenceEvent left(int chatId, int userId, String nickname) {
+        return new PresenceEvent(chatId, userId, nickname, Kind.LEFT, LocalDateTime.now());
+    }
+
+    /**
+     * The event as the line clients used to show, e.g. "Janey joined: 10:02 PM".
+     */
+    public String text() {
+        return nickname + (kind == Kind.JOINED ? " joined: " : " left: ") + timestamp.format(TIME);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import java.io.Serializable;
+
+/**
+ * Counters of the server's recent message cache. {@code hits} were served
+ * from memory, {@code loads} from memory after loading the room and
+ * {@code misses} reached past the cached messages and went to the database.
+ */
+public record RecentCacheStats(
+        int rooms,
+        int cachedMessages,
+        int maxMessages,
+        long hits,
+        long loads,
+        long misses,
+        long evictions
+) implements Serializable {
+
+    public double hitRate() {
+        long reads = hits + loads + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import java.io.Serializable;
+
+/**
+ * A user as listed to clients. Carries no password and none of the user's
+ * groups or messages, so listing users costs one query and a few bytes per row.
+ */
+public record UserSummary(
+        int userId,
+        String email,
+        String username,
+        String nickname,
+        String role
+) implements Serializable {
+}
@@ -0,0 +1,92 @@
+package org.example.dto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Field encodings shared by the hand-written wire forms of the RMI payloads.
+ * Numbers are LEB128 varints, signed ones zigzag encoded first, strings are
+ * UTF-8 behind their length and times are microseconds since the epoch, the
+ * precision the database keeps.
+ */
+public final class WireFormat {
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private WireFormat() {
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new InvalidObjectException("Malformed varint");
+    }
+
+    public static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readSignedVarLong(DataInput in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > Integer.MAX_VALUE) {
+            throw new InvalidObjectException("String of " + (length - 1) + " bytes");
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    public static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        writeSignedVarLong(out, time != null ? toMicros(time) : NO_TIME);
+    }
+
+    public static LocalDateTime readTime(DataInput in) throws IOException {
+        long micros = readSignedVarLong(in);
+        return micros != NO_TIME ? fromMicros(micros) : null;
+    }
+}
@@ -1,8 +1,26 @@
 // ChatObserver.java
 package org.example.rmi;
+import org.example.dto.MessageView;
+import org.example.dto.PresenceEvent;
+
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 public interface ChatObserver extends Remote {
     void notifyNewMessage(String message, int chatId) throws RemoteException;
-}
\ No newline at end of file
+
+    // Burst of messages for one chat in a single callback, oldest first.
+    // Clients built before this method existed keep receiving notifyNewMessage.
+    default void notifyMessages(List<MessageView> messages, int chatId) throws RemoteException {
+        for (MessageView message : messages) {
+            notifyNewMessage(message.body(), chatId);
+        }
+    }
+
+    // Someone joined or left the chat, the event is not part of the history.
+    // Clients built before this method existed get it as a plain line.
+    default void notifyPresence(PresenceEvent event) throws RemoteException {
+        notifyNewMessage(event.text(), event.chatId());
+    }
+}
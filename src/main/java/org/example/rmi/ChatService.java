@@ -1,14 +1,24 @@
 // ChatService.java (new interface)
 package org.example.rmi;
 import org.example.domain.*;
+import org.example.dto.GroupSummary;
+import org.example.dto.MessageView;
+import org.example.dto.Page;
+import org.example.dto.PageRequest;
+import org.example.dto.ObserverQueueStats;
+import org.example.dto.RecentCacheStats;
+import org.example.dto.UserSummary;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ChatService extends Remote {
 //    void createChat(Chat chat) throws RemoteException;
-    List<ChatGroup> getAllChats() throws RemoteException;
+    List<GroupSummary> getAllChats() throws RemoteException;
+    // Sortable by any GroupSummary field, filtered on name, description and admin
+    Page<GroupSummary> getChats(PageRequest request) throws RemoteException;
 //    void subscribeUserToChat(int userId, int chatId) throws RemoteException;
 //    void unsubscribeUserFromChat(int userId, int chatId) throws RemoteException;
 //    void sendMessageToChat(int chatId, String message) throws RemoteException;
@@ -20,7 +30,7 @@ public interface ChatService extends Remote {
 
     void createChat(ChatGroup chatGroup) throws RemoteException;
     void deleteChat(int chatId) throws RemoteException;
-    List<User> getUsersInChat(int chatId) throws RemoteException;
+    List<UserSummary> getUsersInChat(int chatId) throws RemoteException;
     void removeUserFromChat(int userId, int chatId) throws RemoteException;
     void subscribeToChat(int userId, int chatId) throws RemoteException;
    // void unsubscribeFromChat(int userId, int chatId) throws RemoteException;
@@ -29,9 +39,22 @@ public interface ChatService extends Remote {
 
     List<Message> getChatMessages(int chatId) throws RemoteException;
     void sendAdminMessage(String message, User sender, int chatId) throws RemoteException;
-    List<ChatMessage> getAllChatMessages(int chatId) throws RemoteException;
+    List<MessageView> getAllChatMessages(int chatId) throws RemoteException;
 
-    List<User> getAllUsers() throws RemoteException;
+    // Keyset pages of a chat's history on message_id, each returned oldest first
+    List<MessageView> getRecentMessages(int chatId, int limit) throws RemoteException;
+    List<MessageView> getMessagesBefore(int chatId, long beforeMessageId, int limit) throws RemoteException;
+    List<MessageView> getMessagesSince(int chatId, long afterMessageId, int limit) throws RemoteException;
+
+    // Messages containing every word of the query, newest first; a null filter matches everything
+    List<MessageView> searchMessages(String query, Integer chatId, LocalDateTime from, LocalDateTime to, int limit)
+            throws RemoteException;
+
+    List<UserSummary> getAllUsers() throws RemoteException;
+
+    List<ObserverQueueStats> getObserverQueueStats() throws RemoteException;
+
+    RecentCacheStats getRecentCacheStats() throws RemoteException;
 
 
 
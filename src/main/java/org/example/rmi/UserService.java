@@ -1,13 +1,18 @@
 package org.example.rmi;
-import org.example.domain.ChatGroup;
 import org.example.domain.User;
+import org.example.dto.GroupSummary;
+import org.example.dto.Page;
+import org.example.dto.PageRequest;
+import org.example.dto.UserSummary;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.List;
 
 public interface UserService extends Remote {
     User getUserByUsername(String username) throws RemoteException;
-    List<User> getAllUsers() throws RemoteException;  // Add this
+    List<UserSummary> getAllUsers() throws RemoteException;  // Add this
+    // Sortable by any UserSummary field, filtered on username, email and nickname
+    Page<UserSummary> getUsers(PageRequest request) throws RemoteException;
     void deleteUser(int userId) throws RemoteException;
 
     User getUser(int id) throws RemoteException;
@@ -18,7 +23,7 @@ public interface UserService extends Remote {
 
     void updateUser(User user) throws RemoteException;
     //List<String> getGroupDataByUserId(int userId) throws RemoteException;
-    List<ChatGroup> getGroupDataByUserId(int userId) throws RemoteException;
+    List<GroupSummary> getGroupDataByUserId(int userId) throws RemoteException;
 }
 
 
@@ -0,0 +1,61 @@
+package org.example.server;
+
+import org.hibernate.cfg.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * The database the server runs on, picked at startup with {@code -Dchat.db}.
+ * Every profile starts from {@code hibernate.cfg.xml}; the embedded ones only
+ * replace the connection, so the entity model and tuning stay the same.
+ * H2 runs in its MySQL mode and creates or updates the schema on start.
+ */
+public enum PersistenceProfile {
+    /** The MySQL server configured in {@code hibernate.cfg.xml}. */
+    MYSQL,
+    /** Embedded H2 in memory, empty on every start. */
+    H2_MEM,
+    /** Embedded H2 in the file named by {@code chat.db.path}, {@code data/chat} by default. */
+    H2_FILE;
+
+    // The server closes the database on shutdown, after its writers have drained
+    private static final String H2_OPTIONS = ";MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_ON_EXIT=FALSE";
+
+    /**
+     * Accepts the names in any case and with dashes, e.g. {@code h2-mem}.
+     */
+    public static PersistenceProfile fromSystemProperty(String key, PersistenceProfile defaultProfile) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultProfile;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown database profile '" + value + "', using " + defaultProfile);
+            return defaultProfile;
+        }
+    }
+
+    public Configuration configuration() {
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate.cfg.xml");
+        // SQL logging is off unless asked for, every message would print several statements
+        configuration.setProperty("hibernate.show_sql", Boolean.toString(Boolean.getBoolean("chat.showSql")));
+        switch (this) {
+            case MYSQL -> {
+                return configuration;
+            }
+            case H2_MEM -> configuration.setProperty("hibernate.connection.url",
+                    "jdbc:h2:mem:chat;DB_CLOSE_DELAY=-1" + H2_OPTIONS);
+            case H2_FILE -> configuration.setProperty("hibernate.connection.url",
+                    "jdbc:h2:file:" + Path.of(System.getProperty("chat.db.path", "data/chat")).toAbsolutePath()
+                            + H2_OPTIONS);
+        }
+        configuration.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        configuration.setProperty("hibernate.connection.username", "sa");
+        configuration.setProperty("hibernate.connection.password", "");
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        return configuration;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.server;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks a schema created by an older server before any client connects.
+ * {@code hbm2ddl.auto=update} may widen a column on dialects that can alter
+ * its type, but that is only verified on H2 and is skipped without ALTER
+ * rights or with update turned off. The 32-bit id columns of such a database
+ * would reject the first generated id and fail every message and login, so the
+ * migration script stays required and this check refuses to start without it.
+ */
+final class SchemaCheck {
+    private static final String MIGRATION = "db/001-snowflake-ids.sql";
+
+    // Tables and their id columns that hold 64-bit generated ids
+    private static final String[][] LONG_IDS = {
+            {"chat_message", "message_id"},
+            {"ChatLog", "chat_id"},
+    };
+
+    private SchemaCheck() {
+    }
+
+    static void verify(SessionFactory sessionFactory) {
+        List<String> narrow = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                DatabaseMetaData metaData = connection.getMetaData();
+                // Name patterns are case sensitive on H2, so all columns are compared by hand
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "%", "%")) {
+                    while (columns.next()) {
+                        for (String[] id : LONG_IDS) {
+                            if (columns.getString("TABLE_NAME").equalsIgnoreCase(id[0])
+                                    && columns.getString("COLUMN_NAME").equalsIgnoreCase(id[1])
+                                    && columns.getInt("DATA_TYPE") != Types.BIGINT) {
+                                narrow.add(id[0] + "." + id[1] + " is " + columns.getString("TYPE_NAME"));
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        if (!narrow.isEmpty()) {
+            throw new IllegalStateException("The database schema is older than this server ("
+                    + String.join(", ", narrow) + "). Run " + MIGRATION + " against it once, then restart.");
+        }
+    }
+}
@@ -4,38 +4,78 @@ import org.example.rmi.ChatLogService;
 import org.example.rmi.ChatService;
 import org.example.rmi.UserService;
 import org.example.server.impl.ChatLogServiceImpl;
+import org.example.server.impl.ChatLogWriter;
 import org.example.server.impl.ChatServiceImpl;
 import org.example.server.impl.UserServiceImpl;
+import org.example.server.metrics.ServerMetrics;
+import org.example.server.presence.PresenceIndex;
+import org.example.transport.NioChatServer;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 
+import java.io.IOException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
 
 public class ServerDemo {
     public static void startServer() {
         try {
-            Configuration configuration = new Configuration();
-            configuration.configure("hibernate.cfg.xml");
+            // MySQL unless started with -Dchat.db=h2-mem or -Dchat.db=h2-file
+            PersistenceProfile profile = PersistenceProfile.fromSystemProperty("chat.db", PersistenceProfile.MYSQL);
+            Configuration configuration = profile.configuration();
             configuration.addAnnotatedClass(User.class);
             configuration.addAnnotatedClass(ChatUser.class);
             configuration.addAnnotatedClass(ChatGroup.class);
             configuration.addAnnotatedClass(ChatMessage.class);
             configuration.addAnnotatedClass(ChatLog.class);
             SessionFactory sessionFactory = configuration.buildSessionFactory();
-            ChatService chatService = new ChatServiceImpl(sessionFactory);
-            UserService userService = new UserServiceImpl(sessionFactory);
-            ChatLogService logService = new ChatLogServiceImpl(sessionFactory);
+            System.out.println("Database profile " + profile + ": "
+                    + configuration.getProperty("hibernate.connection.url"));
+            SchemaCheck.verify(sessionFactory);
+            // Presence is kept in memory and shared, chat_log rows are written behind it
+            PresenceIndex presence = new PresenceIndex();
+            ChatLogWriter chatLogWriter = new ChatLogWriter(sessionFactory);
+            chatLogWriter.closeOpenSessions();
+
+            // Every call is timed and shown over JMX, see ServerMetrics; only these proxies are exported
+            ChatServiceImpl chatServiceImpl = new ChatServiceImpl(sessionFactory, presence, chatLogWriter);
+            ChatService chatService = ServerMetrics.instrument(ChatService.class, chatServiceImpl);
+            UserService userService = ServerMetrics.instrument(UserService.class,
+                    new UserServiceImpl(sessionFactory));
+            ChatLogService logService = ServerMetrics.instrument(ChatLogService.class,
+                    new ChatLogServiceImpl(sessionFactory, presence, chatLogWriter));
 
             Registry registry = LocateRegistry.createRegistry(55545);
-            registry.rebind("ChatService", chatService);
-            registry.rebind("UserService", userService);
-            registry.rebind("LogService", logService);
+            registry.rebind("ChatService", UnicastRemoteObject.exportObject(chatService, 0));
+            registry.rebind("UserService", UnicastRemoteObject.exportObject(userService, 0));
+            registry.rebind("LogService", UnicastRemoteObject.exportObject(logService, 0));
 
             new PreDefinedSql(sessionFactory).addDefaultGroupRow();
 
-
             System.out.println("RMI services are up and running on port 55545");
+
+            // Same services for clients started with -Dchat.transport=nio
+            NioChatServer nioServer = new NioChatServer(Integer.getInteger("chat.nio.port", 55546),
+                    chatService, userService, logService);
+            System.out.println("NIO transport is up and running on port " + nioServer.port());
+
+            // NIO clients are cut off first, then queued messages and sessions are written
+            // before the database goes away
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    nioServer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                try {
+                    chatServiceImpl.shutdown();
+                    chatLogWriter.shutdown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sessionFactory.close();
+            }, "chat-server-shutdown"));
         } catch (Exception e) {
             e.printStackTrace();
         }
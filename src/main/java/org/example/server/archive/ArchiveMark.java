@@ -0,0 +1,47 @@
+package org.example.server.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * High-water mark of a chat's archive: the last archived message and where
+ * the data and index files of the segment it went to end. Bytes past these
+ * lengths were written by an append that did not finish and are discarded.
+ */
+record ArchiveMark(long lastMessageId, int segment, long dataLength, long indexLength) {
+    private static final String FILE_NAME = "archive.mark";
+
+    static final ArchiveMark EMPTY = new ArchiveMark(0, 1, 0, 0);
+
+    static ArchiveMark read(Path chatDirectory) throws IOException {
+        Path file = chatDirectory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return EMPTY;
+        }
+        String[] fields = Files.readString(file).trim().split(" ");
+        if (fields.length < 4) {
+            // Mark of the earlier plain text segments, the block archive starts over next to them
+            return EMPTY;
+        }
+        return new ArchiveMark(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+    }
+
+    // Replaced in one rename, a reader never sees half a mark
+    void write(Path chatDirectory) throws IOException {
+        Path temp = chatDirectory.resolve(FILE_NAME + ".tmp");
+        Files.writeString(temp, lastMessageId + " " + segment + " " + dataLength + " " + indexLength);
+        Files.move(temp, chatDirectory.resolve(FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Path dataFile(Path chatDirectory, int segment) {
+        return chatDirectory.resolve(String.format("segment-%06d.dat", segment));
+    }
+
+    static Path indexFile(Path chatDirectory, int segment) {
+        return chatDirectory.resolve(String.format("segment-%06d.idx", segment));
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.server.archive;
+
+import org.example.dto.MessageView;
+import org.example.dto.WireFormat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random-access reads of the block archive written by {@link ChatArchive}.
+ * Segments are memory-mapped, so reading cold history costs page cache hits
+ * rather than read calls. The sparse index locates the first block of a
+ * request and only the blocks holding the requested messages are inflated.
+ * Pages are returned oldest first, like the history APIs of the chat
+ * service.
+ * <p>
+ * The index and mappings of a chat are kept until the chat's mark moves.
+ * The mark itself is read from disk once and then taken from
+ * {@link ChatArchive#append}. Decoders, with their direct buffer and
+ * inflater, are pooled across requests.
+ */
+public class ArchiveReader {
+    private final Path directory;
+    private final Map<Integer, MappedSegments> archives = new ConcurrentHashMap<>();
+    private final Map<Integer, ArchiveMark> marks = new ConcurrentHashMap<>();
+    // More than one per core would only sit idle, a request finding none makes its own
+    private final BlockingQueue<BlockDecoder> decoders =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    public ArchiveReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Messages with a timestamp in {@code [from, to)}.
+     */
+    public List<MessageView> between(int chatId, LocalDateTime from, LocalDateTime to, int limit) throws IOException {
+        MappedSegments archive = archive(chatId);
+        BlockIndex index = archive.index();
+        long fromMicros = WireFormat.toMicros(from);
+        long toMicros = WireFormat.toMicros(to);
+        List<MessageView> page = new ArrayList<>();
+        int start = Math.max(0, index.lastStartingAtOrBefore(BlockIndex.Block::firstMicros, fromMicros));
+        BlockDecoder decoder = borrowDecoder();
+        try {
+            for (int i = start; i < index.blocks().size() && page.size() < limit; i++) {
+                BlockIndex.Block block = index.blocks().get(i);
+                if (block.firstMicros() >= toMicros) {
+                    break;
+                }
+                List<MessageView> messages = decoder.decode(chatId, archive.segment(block.segment()), block,
+                        (messageId, micros) -> micros >= fromMicros && micros < toMicros);
+                page.addAll(messages.subList(0, Math.min(messages.size(), limit - page.size())));
+            }
+        } finally {
+            releaseDecoder(decoder);
+        }
+        return page;
+    }
+
+    /**
+     * The oldest {@code limit} messages after the given id.
+     */
+    public List<MessageView> since(int chatId, long afterMessageId, int limit) throws IOException {
+        MappedSegments archive = archive(chatId);
+        BlockIndex index = archive.index();
+        List<MessageView> page = new ArrayList<>();
+        int start = Math.max(0, index.lastStartingAtOrBefore(BlockIndex.Block::firstMessageId, afterMessageId));
+        BlockDecoder decoder = borrowDecoder();
+        try {
+            for (int i = start; i < index.blocks().size() && page.size() < limit; i++) {
+                BlockIndex.Block block = index.blocks().get(i);
+                List<MessageView> messages = decoder.decode(chatId, archive.segment(block.segment()), block,
+                        (messageId, micros) -> messageId > afterMessageId);
+                page.addAll(messages.subList(0, Math.min(messages.size(), limit - page.size())));
+            }
+        } finally {
+            releaseDecoder(decoder);
+        }
+        return page;
+    }
+
+    /**
+     * The newest {@code limit} messages before the given id.
+     */
+    public List<MessageView> before(int chatId, long beforeMessageId, int limit) throws IOException {
+        MappedSegments archive = archive(chatId);
+        BlockIndex index = archive.index();
+        List<MessageView> newestFirst = new ArrayList<>();
+        int end = index.lastStartingAtOrBefore(BlockIndex.Block::firstMessageId, beforeMessageId - 1);
+        BlockDecoder decoder = borrowDecoder();
+        try {
+            for (int i = end; i >= 0 && newestFirst.size() < limit; i--) {
+                BlockIndex.Block block = index.blocks().get(i);
+                List<MessageView> messages = decoder.decode(chatId, archive.segment(block.segment()), block,
+                        (messageId, micros) -> messageId < beforeMessageId);
+                for (int j = messages.size() - 1; j >= 0 && newestFirst.size() < limit; j--) {
+                    newestFirst.add(messages.get(j));
+                }
+            }
+        } finally {
+            releaseDecoder(decoder);
+        }
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    /**
+     * @return the id of the newest archived message of the chat, 0 if none
+     */
+    public long lastArchivedMessageId(int chatId) throws IOException {
+        return archive(chatId).index().mark().lastMessageId();
+    }
+
+    /**
+     * Called by the archive after it moved a chat's mark.
+     */
+    void markMoved(int chatId, ArchiveMark mark) {
+        marks.put(chatId, mark);
+    }
+
+    private BlockDecoder borrowDecoder() {
+        BlockDecoder decoder = decoders.poll();
+        return decoder != null ? decoder : new BlockDecoder();
+    }
+
+    private void releaseDecoder(BlockDecoder decoder) {
+        if (!decoders.offer(decoder)) {
+            decoder.close();
+        }
+    }
+
+    private MappedSegments archive(int chatId) throws IOException {
+        Path chatDirectory = directory.resolve("chat_" + chatId);
+        ArchiveMark mark = marks.get(chatId);
+        if (mark == null) {
+            mark = ArchiveMark.read(chatDirectory);
+            // An append in between already put the newer mark
+            ArchiveMark current = marks.putIfAbsent(chatId, mark);
+            mark = current != null ? current : mark;
+        }
+        MappedSegments archive = archives.get(chatId);
+        if (archive == null || !archive.index().mark().equals(mark)) {
+            archive = MappedSegments.of(chatDirectory, BlockIndex.load(chatDirectory, mark), archive);
+            archives.put(chatId, archive);
+        }
+        return archive;
+    }
+}
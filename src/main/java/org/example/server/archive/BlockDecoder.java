@@ -0,0 +1,90 @@
+package org.example.server.archive;
+
+import org.example.dto.MessageView;
+import org.example.dto.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates archive blocks straight from their mapped segment into a reused
+ * direct buffer and decodes messages from there. Only the fixed-size fields
+ * are read for every message; nickname and body are decoded for the
+ * messages a request keeps. One decoder serves one request at a time;
+ * {@link ArchiveReader} pools them, so the buffer outlives the request.
+ */
+final class BlockDecoder implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Filter {
+        boolean keep(long messageId, long micros);
+    }
+
+    private final Inflater inflater = new Inflater();
+    private ByteBuffer raw = ByteBuffer.allocateDirect(64 * 1024);
+
+    List<MessageView> decode(int chatId, ByteBuffer segment, BlockIndex.Block block, Filter filter)
+            throws IOException {
+        int offset = (int) block.offset();
+        int rawLength = segment.getInt(offset);
+        int compressedLength = segment.getInt(offset + 4);
+        if (raw.capacity() < rawLength) {
+            raw = ByteBuffer.allocateDirect(Integer.highestOneBit(rawLength - 1) << 1);
+        }
+        raw.clear().limit(rawLength);
+        inflater.reset();
+        inflater.setInput(segment.slice(offset + 8, compressedLength));
+        try {
+            while (raw.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(raw) == 0 && inflater.needsInput()) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive block of chat " + chatId + " at " + offset, e);
+        }
+        if (raw.hasRemaining()) {
+            throw new IOException("Truncated archive block of chat " + chatId + " at " + offset);
+        }
+        raw.flip();
+
+        List<MessageView> messages = new ArrayList<>();
+        while (raw.hasRemaining()) {
+            long messageId = raw.getLong();
+            long sequence = raw.getLong();
+            int senderId = raw.getInt();
+            long micros = raw.getLong();
+            if (filter.keep(messageId, micros)) {
+                String nickname = readString();
+                String body = readString();
+                messages.add(new MessageView(messageId, chatId, senderId, nickname, body,
+                        WireFormat.fromMicros(micros), sequence));
+            } else {
+                skipString();
+                skipString();
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[raw.getInt()];
+        raw.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipString() {
+        int length = raw.getInt();
+        raw.position(raw.position() + length);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.server.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * The sparse index of a chat archive: every block of every segment, in
+ * message id order, as of one {@link ArchiveMark}.
+ */
+final class BlockIndex {
+    static final int ENTRY_BYTES = 24;
+
+    record Block(int segment, long firstMessageId, long firstMicros, long offset, long end) {
+    }
+
+    private final ArchiveMark mark;
+    private final List<Block> blocks;
+
+    private BlockIndex(ArchiveMark mark, List<Block> blocks) {
+        this.mark = mark;
+        this.blocks = blocks;
+    }
+
+    static BlockIndex load(Path chatDirectory, ArchiveMark mark) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        for (int segment = 1; segment <= mark.segment(); segment++) {
+            Path indexFile = ArchiveMark.indexFile(chatDirectory, segment);
+            if (!Files.exists(indexFile)) {
+                continue;
+            }
+            boolean current = segment == mark.segment();
+            long dataLength = current ? mark.dataLength() : Files.size(ArchiveMark.dataFile(chatDirectory, segment));
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            // Entries past the mark belong to an append that did not finish
+            entries.limit(current ? (int) Math.min(entries.limit(), mark.indexLength()) : entries.limit());
+            int first = blocks.size();
+            while (entries.remaining() >= ENTRY_BYTES) {
+                blocks.add(new Block(segment, entries.getLong(), entries.getLong(), entries.getLong(), dataLength));
+            }
+            // A block ends where the next one of its segment starts
+            for (int i = first; i < blocks.size() - 1; i++) {
+                Block block = blocks.get(i);
+                blocks.set(i, new Block(segment, block.firstMessageId(), block.firstMicros(), block.offset(),
+                        blocks.get(i + 1).offset()));
+            }
+        }
+        return new BlockIndex(mark, blocks);
+    }
+
+    ArchiveMark mark() {
+        return mark;
+    }
+
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    /**
+     * @return the last block whose key is at most {@code value}, or -1 if
+     * every block starts after it
+     */
+    int lastStartingAtOrBefore(ToLongFunction<Block> key, long value) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (key.applyAsLong(blocks.get(mid)) <= value) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.server.archive;
+
+import org.example.dto.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Appends messages to the block files of a chat archive.
+ * <p>
+ * A segment is a {@code .dat} file of deflated blocks, each preceded by its
+ * raw and compressed length, and an {@code .idx} file with one
+ * {@value BlockIndex#ENTRY_BYTES}-byte entry per block: id and timestamp of
+ * the block's first message and the block's offset in the data file.
+ * Messages inside a block are {@code messageId, sequence, senderId,
+ * timestamp micros, nickname, body}, strings as length and UTF-8 bytes.
+ */
+final class BlockWriter implements AutoCloseable {
+    private final Path chatDirectory;
+    private final int blockBytes;
+    private final long segmentBytes;
+    private final Deflater deflater = new Deflater();
+    private final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(raw);
+    private byte[] compressed = new byte[0];
+
+    private int segment;
+    private FileChannel data;
+    private FileChannel index;
+    private long lastMessageId;
+    private long blockFirstMessageId;
+    private long blockFirstMicros;
+
+    private BlockWriter(Path chatDirectory, int blockBytes, long segmentBytes) {
+        this.chatDirectory = chatDirectory;
+        this.blockBytes = blockBytes;
+        this.segmentBytes = segmentBytes;
+    }
+
+    static BlockWriter open(Path chatDirectory, ArchiveMark mark, int blockBytes, long segmentBytes)
+            throws IOException {
+        BlockWriter writer = new BlockWriter(chatDirectory, blockBytes, segmentBytes);
+        writer.lastMessageId = mark.lastMessageId();
+        writer.openSegment(mark.segment(), mark.dataLength(), mark.indexLength());
+        return writer;
+    }
+
+    void write(long messageId, long sequence, int senderId, String nickname, String body, LocalDateTime timestamp)
+            throws IOException {
+        long micros = WireFormat.toMicros(timestamp);
+        if (raw.size() == 0) {
+            blockFirstMessageId = messageId;
+            blockFirstMicros = micros;
+        }
+        record.writeLong(messageId);
+        record.writeLong(sequence);
+        record.writeInt(senderId);
+        record.writeLong(micros);
+        writeString(nickname);
+        writeString(body);
+        lastMessageId = messageId;
+        if (raw.size() >= blockBytes) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Writes the last block, forces both files to disk and returns the mark
+     * to record for them.
+     */
+    ArchiveMark finish() throws IOException {
+        flushBlock();
+        data.force(false);
+        index.force(false);
+        return new ArchiveMark(lastMessageId, segment, data.size(), index.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        closeSegment();
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    private void flushBlock() throws IOException {
+        if (raw.size() == 0) {
+            return;
+        }
+        if (data.size() >= segmentBytes) {
+            data.force(false);
+            index.force(false);
+            closeSegment();
+            openSegment(segment + 1, 0, 0);
+        }
+        byte[] input = raw.toByteArray();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, Math.max(4096, compressed.length * 2));
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        long offset = data.size();
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(input.length).putInt(compressedLength).flip();
+        writeFully(data, header, offset);
+        writeFully(data, ByteBuffer.wrap(compressed, 0, compressedLength), offset + 8);
+
+        ByteBuffer entry = ByteBuffer.allocate(BlockIndex.ENTRY_BYTES)
+                .putLong(blockFirstMessageId).putLong(blockFirstMicros).putLong(offset).flip();
+        writeFully(index, entry, index.size());
+        raw.reset();
+    }
+
+    private void openSegment(int segment, long dataLength, long indexLength) throws IOException {
+        this.segment = segment;
+        this.data = FileChannel.open(ArchiveMark.dataFile(chatDirectory, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = FileChannel.open(ArchiveMark.indexFile(chatDirectory, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Drop whatever an interrupted append left after the mark
+        data.truncate(dataLength);
+        index.truncate(indexLength);
+    }
+
+    private void closeSegment() throws IOException {
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.server.archive;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, block-compressed archive of chat history in
+ * {@code chat_logs/chat_<id>/}. Every append writes only the messages after
+ * the chat's {@link ArchiveMark}, so archiving costs grow with new traffic
+ * rather than with the history. See {@link BlockWriter} for the file format
+ * and {@link ArchiveReader} for reading it back.
+ * <p>
+ * Messages are packed into blocks of about {@code chat.archive.blockBytes}
+ * before deflating; segments roll over once their data file reaches
+ * {@code chat.archive.segmentBytes}.
+ * <p>
+ * Rows are read through a forward-only cursor of a stateless session and
+ * written as they arrive, so memory use does not depend on how many
+ * messages are appended. On MySQL the cursor only streams with
+ * {@code useCursorFetch=true} on the connection URL; rows then arrive
+ * {@code chat.export.fetchSize} at a time.
+ */
+public class ChatArchive {
+    private final SessionFactory sessionFactory;
+    private final Path directory;
+    private final ArchiveReader reader;
+    private final int fetchSize = Integer.getInteger("chat.export.fetchSize", 1000);
+    private final int blockBytes = Integer.getInteger("chat.archive.blockBytes", 64 * 1024);
+    private final long segmentBytes = Long.getLong("chat.archive.segmentBytes", 64L << 20);
+    private final Map<Integer, Object> chatLocks = new ConcurrentHashMap<>();
+
+    public ChatArchive(SessionFactory sessionFactory) {
+        this(sessionFactory, Path.of("chat_logs"));
+    }
+
+    public ChatArchive(SessionFactory sessionFactory, Path directory) {
+        this.sessionFactory = sessionFactory;
+        this.directory = directory;
+        this.reader = new ArchiveReader(directory);
+    }
+
+    public ArchiveReader reader() {
+        return reader;
+    }
+
+    /**
+     * Appends the messages stored since the last append.
+     *
+     * @return the data file holding the newest archived message, or
+     * {@code null} if the chat has no messages
+     */
+    public Path append(int chatId) throws IOException {
+        synchronized (chatLocks.computeIfAbsent(chatId, id -> new Object())) {
+            Path chatDirectory = directory.resolve("chat_" + chatId);
+            ArchiveMark mark = ArchiveMark.read(chatDirectory);
+            try (StatelessSession session = sessionFactory.openStatelessSession();
+                 ScrollableResults<Object[]> rows = session.createQuery(
+                                 "SELECT m.message_id, COALESCE(m.seq, 0L), u.user_id, u.nickname, " +
+                                         "m.message, m.start_at FROM ChatMessage m JOIN m.user u " +
+                                         "WHERE m.chatGroup.chatId = :chatId AND m.message_id > :after " +
+                                         "ORDER BY m.message_id",
+                                 Object[].class)
+                         .setParameter("chatId", chatId)
+                         .setParameter("after", mark.lastMessageId())
+                         .setFetchSize(fetchSize)
+                         .setReadOnly(true)
+                         .scroll(ScrollMode.FORWARD_ONLY)) {
+                if (!rows.next()) {
+                    return mark.dataLength() > 0 ? ArchiveMark.dataFile(chatDirectory, mark.segment()) : null;
+                }
+                Files.createDirectories(chatDirectory);
+                try (BlockWriter writer = BlockWriter.open(chatDirectory, mark, blockBytes, segmentBytes)) {
+                    do {
+                        Object[] row = rows.get();
+                        writer.write((Long) row[0], (Long) row[1], (Integer) row[2], (String) row[3],
+                                (String) row[4], (LocalDateTime) row[5]);
+                    } while (rows.next());
+                    mark = writer.finish();
+                }
+                // Moved only once the blocks are on disk
+                mark.write(chatDirectory);
+                reader.markMoved(chatId, mark);
+                return ArchiveMark.dataFile(chatDirectory, mark.segment());
+            }
+        }
+    }
+}
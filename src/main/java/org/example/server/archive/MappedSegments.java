@@ -0,0 +1,67 @@
+package org.example.server.archive;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The data files of a chat archive mapped read-only, as of one
+ * {@link BlockIndex}. Segments are mapped on first use; mappings of
+ * segments that did not change are taken over from the previous instance
+ * when the mark moves.
+ */
+final class MappedSegments {
+    private final Path chatDirectory;
+    private final BlockIndex index;
+    private final MappedByteBuffer[] segments;
+
+    private MappedSegments(Path chatDirectory, BlockIndex index, MappedSegments previous) {
+        this.chatDirectory = chatDirectory;
+        this.index = index;
+        this.segments = new MappedByteBuffer[index.mark().segment()];
+        if (previous != null) {
+            for (int i = 0; i < Math.min(segments.length, previous.segments.length); i++) {
+                MappedByteBuffer mapped = previous.segments[i];
+                if (mapped != null && mapped.capacity() == dataLength(i + 1)) {
+                    segments[i] = mapped;
+                }
+            }
+        }
+    }
+
+    static MappedSegments of(Path chatDirectory, BlockIndex index, MappedSegments previous) {
+        return new MappedSegments(chatDirectory, index, previous);
+    }
+
+    BlockIndex index() {
+        return index;
+    }
+
+    synchronized MappedByteBuffer segment(int segment) throws IOException {
+        MappedByteBuffer mapped = segments[segment - 1];
+        if (mapped == null) {
+            try (FileChannel channel = FileChannel.open(
+                    ArchiveMark.dataFile(chatDirectory, segment), StandardOpenOption.READ)) {
+                // Only up to the mark, later bytes may belong to an append in progress
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, dataLength(segment));
+            }
+            segments[segment - 1] = mapped;
+        }
+        return mapped;
+    }
+
+    private long dataLength(int segment) {
+        if (segment == index.mark().segment()) {
+            return index.mark().dataLength();
+        }
+        long end = 0;
+        for (BlockIndex.Block block : index.blocks()) {
+            if (block.segment() == segment) {
+                end = Math.max(end, block.end());
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.server.cache;
+
+import org.example.dto.MessageView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The newest messages of one chat, oldest first, in a fixed-size ring.
+ * <p>
+ * The ring always holds a contiguous tail of the chat's history. It is only
+ * read once {@link #fill} has loaded that tail from the database; messages
+ * committed while the load is running are appended and merged in. A ring is
+ * {@code complete} when it holds the whole history of its chat, so pages
+ * reaching past its oldest message are still answered from memory.
+ */
+final class MessageRing {
+    private final MessageView[] slots;
+    private int head;
+    private int size;
+    private boolean loaded;
+    private boolean complete;
+    private boolean evicted;
+
+    MessageRing(int capacity) {
+        this.slots = new MessageView[capacity];
+    }
+
+    /**
+     * @return the change in the number of held messages
+     */
+    synchronized int append(MessageView message) {
+        if (evicted || (size > 0 && message.messageId() <= get(size - 1).messageId())) {
+            return 0;
+        }
+        if (size == slots.length) {
+            slots[head] = message;
+            head = (head + 1) % slots.length;
+            complete = false;
+            return 0;
+        }
+        slots[(head + size) % slots.length] = message;
+        size++;
+        return 1;
+    }
+
+    /**
+     * Loads the ring with the newest messages of its chat, oldest first.
+     *
+     * @param complete whether {@code latest} is the whole history of the chat
+     * @return the change in the number of held messages
+     */
+    synchronized int fill(List<MessageView> latest, boolean complete) {
+        if (loaded || evicted) {
+            return 0;
+        }
+        List<MessageView> merged = new ArrayList<>(latest);
+        long newestLoaded = latest.isEmpty() ? Long.MIN_VALUE : latest.get(latest.size() - 1).messageId();
+        for (int i = 0; i < size; i++) {
+            if (get(i).messageId() > newestLoaded) {
+                merged.add(get(i));
+            }
+        }
+        int previousSize = size;
+        int skip = Math.max(0, merged.size() - slots.length);
+        head = 0;
+        size = merged.size() - skip;
+        for (int i = 0; i < size; i++) {
+            slots[i] = merged.get(skip + i);
+        }
+        this.complete = complete && skip == 0;
+        this.loaded = true;
+        return size - previousSize;
+    }
+
+    /**
+     * Marks the ring as dropped from the cache, later writes are ignored.
+     *
+     * @return the number of messages it held
+     */
+    synchronized int evict() {
+        evicted = true;
+        loaded = false;
+        return size;
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the newest {@code limit} messages, or {@code null} if the ring
+     * holds fewer and older ones exist
+     */
+    synchronized List<MessageView> latest(int limit) {
+        if (!loaded || (size < limit && !complete)) {
+            return null;
+        }
+        return copy(Math.max(0, size - limit), size);
+    }
+
+    /**
+     * @return the newest {@code limit} messages older than the cursor, or
+     * {@code null} if they are not all held
+     */
+    synchronized List<MessageView> before(long beforeMessageId, int limit) {
+        if (!loaded) {
+            return null;
+        }
+        int end = firstIndexAbove(beforeMessageId - 1);
+        if (end < limit && !complete) {
+            return null;
+        }
+        return copy(Math.max(0, end - limit), end);
+    }
+
+    /**
+     * @return the oldest {@code limit} messages newer than the cursor, or
+     * {@code null} if the ring starts after it
+     */
+    synchronized List<MessageView> since(long afterMessageId, int limit) {
+        if (!loaded || (!complete && (size == 0 || get(0).messageId() > afterMessageId))) {
+            return null;
+        }
+        int start = firstIndexAbove(afterMessageId);
+        return copy(start, Math.min(size, start + limit));
+    }
+
+    // Index of the oldest held message with an id above the given one, size if there is none
+    private int firstIndexAbove(long messageId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).messageId() <= messageId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<MessageView> copy(int from, int to) {
+        List<MessageView> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(get(i));
+        }
+        return page;
+    }
+
+    private MessageView get(int index) {
+        return slots[(head + index) % slots.length];
+    }
+}
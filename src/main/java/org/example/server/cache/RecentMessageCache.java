@@ -0,0 +1,151 @@
+package org.example.server.cache;
+
+import org.example.dto.MessageView;
+import org.example.dto.RecentCacheStats;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The last {@code chat.cache.messagesPerChat} messages of every chat that
+ * was read recently, so opening a room and scrolling its recent history does
+ * not query the database.
+ * <p>
+ * Committed messages are appended by the message writer; a room is loaded
+ * from the database the first time it is read. All rooms together hold at
+ * most {@code chat.cache.maxMessages} messages, the least recently used rooms
+ * are dropped when a load or write goes over that.
+ */
+public class RecentMessageCache {
+    /**
+     * Reads the newest messages of a chat, oldest first.
+     */
+    @FunctionalInterface
+    public interface HistoryLoader {
+        List<MessageView> loadLatest(int chatId, int limit) throws Exception;
+    }
+
+    private final HistoryLoader loader;
+    private final int messagesPerChat;
+    private final int maxMessages;
+    // Access ordered, the first entry is the least recently used room
+    private final LinkedHashMap<Integer, MessageRing> rings = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicInteger cachedMessages = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentMessageCache(HistoryLoader loader) {
+        this(loader,
+                Integer.getInteger("chat.cache.messagesPerChat", 200),
+                Integer.getInteger("chat.cache.maxMessages", 50_000));
+    }
+
+    public RecentMessageCache(HistoryLoader loader, int messagesPerChat, int maxMessages) {
+        if (messagesPerChat < 1) {
+            throw new IllegalArgumentException("messagesPerChat must be positive: " + messagesPerChat);
+        }
+        this.loader = loader;
+        this.messagesPerChat = messagesPerChat;
+        this.maxMessages = Math.max(maxMessages, messagesPerChat);
+    }
+
+    /**
+     * Adds a committed message to its room if the room is cached.
+     */
+    public void append(MessageView message) {
+        MessageRing ring;
+        synchronized (rings) {
+            ring = rings.get(message.chatId());
+        }
+        if (ring != null) {
+            added(message.chatId(), ring.append(message));
+        }
+    }
+
+    public List<MessageView> latest(int chatId, int limit) {
+        return read(chatId, ring -> ring.latest(limit));
+    }
+
+    public List<MessageView> before(int chatId, long beforeMessageId, int limit) {
+        return read(chatId, ring -> ring.before(beforeMessageId, limit));
+    }
+
+    public List<MessageView> since(int chatId, long afterMessageId, int limit) {
+        return read(chatId, ring -> ring.since(afterMessageId, limit));
+    }
+
+    /**
+     * Drops a room, for example once its chat was deleted.
+     */
+    public void invalidate(int chatId) {
+        MessageRing ring;
+        synchronized (rings) {
+            ring = rings.remove(chatId);
+        }
+        if (ring != null) {
+            cachedMessages.addAndGet(-ring.evict());
+        }
+    }
+
+    public RecentCacheStats stats() {
+        int rooms;
+        synchronized (rings) {
+            rooms = rings.size();
+        }
+        return new RecentCacheStats(rooms, cachedMessages.get(), maxMessages,
+                hits.sum(), loads.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * @return the page, or {@code null} if the caller has to query the
+     * database because the page reaches past the cached messages
+     */
+    private List<MessageView> read(int chatId, Function<MessageRing, List<MessageView>> page) {
+        MessageRing ring;
+        synchronized (rings) {
+            ring = rings.computeIfAbsent(chatId, id -> new MessageRing(messagesPerChat));
+        }
+        if (ring.isLoaded()) {
+            List<MessageView> cached = page.apply(ring);
+            (cached != null ? hits : misses).increment();
+            return cached;
+        }
+        // The ring is already registered, so messages committed during the load are appended to it
+        try {
+            List<MessageView> latest = loader.loadLatest(chatId, messagesPerChat);
+            added(chatId, ring.fill(latest, latest.size() < messagesPerChat));
+        } catch (Exception e) {
+            System.err.println("Error loading recent messages of chat " + chatId + ": " + e.getMessage());
+            misses.increment();
+            return null;
+        }
+        List<MessageView> loaded = page.apply(ring);
+        (loaded != null ? loads : misses).increment();
+        return loaded;
+    }
+
+    private void added(int chatId, int count) {
+        if (cachedMessages.addAndGet(count) <= maxMessages) {
+            return;
+        }
+        synchronized (rings) {
+            Iterator<Map.Entry<Integer, MessageRing>> eldest = rings.entrySet().iterator();
+            while (cachedMessages.get() > maxMessages && eldest.hasNext()) {
+                Map.Entry<Integer, MessageRing> entry = eldest.next();
+                if (entry.getKey() == chatId) {
+                    continue;
+                }
+                eldest.remove();
+                cachedMessages.addAndGet(-entry.getValue().evict());
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.server.fanout;
+
+import org.example.rmi.ChatObserver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observers grouped by the chat they subscribed to, so a message is only
+ * delivered to the clients of its own room. Each subscription owns the
+ * mailbox its callbacks are queued in.
+ */
+public class ChatObserverRegistry {
+    private final Map<Integer, Map<ChatObserver, ObserverMailbox>> observersByChat = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the mailbox of a new subscription. When the observer is
+     * already subscribed to the chat the existing mailbox is kept and returned.
+     */
+    public ObserverMailbox add(int chatId, ObserverMailbox mailbox) {
+        ObserverMailbox[] current = new ObserverMailbox[1];
+        observersByChat.compute(chatId, (id, mailboxes) -> {
+            Map<ChatObserver, ObserverMailbox> map = mailboxes != null ? mailboxes : new ConcurrentHashMap<>();
+            current[0] = map.computeIfAbsent(mailbox.getObserver(), observer -> mailbox);
+            return map;
+        });
+        return current[0];
+    }
+
+    public ObserverMailbox remove(int chatId, ChatObserver observer) {
+        ObserverMailbox[] removed = new ObserverMailbox[1];
+        // Drop the room entry together with its last observer
+        observersByChat.computeIfPresent(chatId, (id, mailboxes) -> {
+            removed[0] = mailboxes.remove(observer);
+            return mailboxes.isEmpty() ? null : mailboxes;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes the given subscription only, leaving a newer subscription of
+     * the same observer in place.
+     */
+    public boolean remove(ObserverMailbox mailbox) {
+        boolean[] removed = new boolean[1];
+        observersByChat.computeIfPresent(mailbox.getChatId(), (id, mailboxes) -> {
+            removed[0] = mailboxes.remove(mailbox.getObserver(), mailbox);
+            return mailboxes.isEmpty() ? null : mailboxes;
+        });
+        return removed[0];
+    }
+
+    public Collection<ObserverMailbox> mailboxesOf(int chatId) {
+        Map<ChatObserver, ObserverMailbox> mailboxes = observersByChat.get(chatId);
+        return mailboxes != null ? Collections.unmodifiableCollection(mailboxes.values()) : Collections.emptyList();
+    }
+
+    public List<ObserverMailbox> allMailboxes() {
+        List<ObserverMailbox> all = new ArrayList<>();
+        observersByChat.values().forEach(mailboxes -> all.addAll(mailboxes.values()));
+        return all;
+    }
+
+    public int size(int chatId) {
+        Map<ChatObserver, ObserverMailbox> mailboxes = observersByChat.get(chatId);
+        return mailboxes != null ? mailboxes.size() : 0;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.server.fanout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tuning of the per-subscription outbound queues.
+ *
+ * @param queueCapacity    messages a subscription may have queued before the overflow policy applies
+ * @param overflowPolicy   what to do with a full queue
+ * @param maxBatch         most messages sent in one callback
+ * @param batchWindowNanos how long a sender waits for a burst to fill a batch
+ */
+public record FanoutSettings(int queueCapacity, OverflowPolicy overflowPolicy, int maxBatch, long batchWindowNanos) {
+
+    /**
+     * Reads the {@code chat.fanout.*} system properties.
+     */
+    public static FanoutSettings fromSystemProperties() {
+        return new FanoutSettings(
+                Integer.getInteger("chat.fanout.queueCapacity", 1024),
+                OverflowPolicy.fromSystemProperty("chat.fanout.overflowPolicy", OverflowPolicy.DROP_OLDEST),
+                Integer.getInteger("chat.fanout.maxBatch", 64),
+                TimeUnit.MILLISECONDS.toNanos(Long.getLong("chat.fanout.batchWindowMillis", 5)));
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.server.fanout;
+
+import org.example.dto.MessageView;
+import org.example.dto.ObserverQueueStats;
+import org.example.dto.PresenceEvent;
+import org.example.rmi.ChatObserver;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * Delivers chat messages to the observers of a room without blocking the
+ * caller. Publishing only queues the message; every subscription has a
+ * bounded queue drained by its own virtual sender thread, see
+ * {@link FanoutSettings} for the tuning.
+ */
+public class ObserverDispatcher {
+    private final ChatObserverRegistry registry = new ChatObserverRegistry();
+    private final Map<Integer, Object> publishLocks = new ConcurrentHashMap<>();
+    private final ThreadFactory senderFactory = Thread.ofVirtual().name("chat-fanout-", 0).factory();
+    private final ExecutorService evictionExecutor = Executors.newThreadPerTaskExecutor(senderFactory);
+    private final FanoutSettings settings;
+
+    public ObserverDispatcher() {
+        this(FanoutSettings.fromSystemProperties());
+    }
+
+    public ObserverDispatcher(FanoutSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @param onEvict run off the publishing thread when the subscription is
+     *                evicted as a slow or dead consumer
+     * @return false if the observer already was subscribed to the chat
+     */
+    public boolean subscribe(int chatId, int userId, String nickname, ChatObserver observer, Runnable onEvict) {
+        ObserverMailbox mailbox = new ObserverMailbox(chatId, userId, nickname, observer, settings,
+                evicted -> {
+                    if (registry.remove(evicted)) {
+                        System.err.println("Evicted observer of user " + userId + " from chat " + chatId);
+                        evictionExecutor.execute(onEvict);
+                    }
+                });
+        // Re-subscribing keeps the existing queue, only a new mailbox gets a sender
+        if (registry.add(chatId, mailbox) != mailbox) {
+            return false;
+        }
+        mailbox.start(senderFactory);
+        return true;
+    }
+
+    public boolean unsubscribe(int chatId, ChatObserver observer) {
+        ObserverMailbox mailbox = registry.remove(chatId, observer);
+        if (mailbox == null) {
+            return false;
+        }
+        mailbox.close();
+        return true;
+    }
+
+    public void publish(int chatId, MessageView message) {
+        offerAll(chatId, mailbox -> mailbox.offer(message));
+    }
+
+    /**
+     * Queues a join or leave like a message, observers get it through
+     * {@link ChatObserver#notifyPresence}.
+     */
+    public void publish(int chatId, PresenceEvent event) {
+        offerAll(chatId, mailbox -> mailbox.offer(event));
+    }
+
+    private void offerAll(int chatId, Consumer<ObserverMailbox> offer) {
+        // Queue to every mailbox of the room under one lock so all observers see the same order
+        synchronized (publishLocks.computeIfAbsent(chatId, id -> new Object())) {
+            for (ObserverMailbox mailbox : registry.mailboxesOf(chatId)) {
+                offer.accept(mailbox);
+            }
+        }
+    }
+
+    public int subscriberCount(int chatId) {
+        return registry.size(chatId);
+    }
+
+    /**
+     * Queue statistics of every subscription, deepest queue first.
+     */
+    public List<ObserverQueueStats> queueStats() {
+        return registry.allMailboxes().stream()
+                .map(ObserverMailbox::stats)
+                .sorted(Comparator.comparingInt(ObserverQueueStats::depth).reversed())
+                .toList();
+    }
+
+    public void shutdown() {
+        registry.allMailboxes().forEach(ObserverMailbox::close);
+        evictionExecutor.shutdown();
+    }
+}
@@ -0,0 +1,301 @@
+package org.example.server.fanout;
+
+import org.example.dto.MessageBatch;
+import org.example.dto.MessageView;
+import org.example.dto.ObserverQueueStats;
+import org.example.dto.PresenceEvent;
+import org.example.rmi.ChatObserver;
+import org.example.server.metrics.LatencyStats;
+import org.example.server.metrics.ServerMetrics;
+
+import java.rmi.ConnectException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.UnmarshalException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded outbound queue of one observer in one chat, drained by its own
+ * sender thread. The observer sees messages in the order they were offered
+ * while a slow client only ever holds up its own deliveries; once the queue
+ * is full the {@link OverflowPolicy} decides what gives.
+ * <p>
+ * The sender waits a short window after the first queued message so a burst
+ * goes out as one {@link ChatObserver#notifyMessages} call, sent in the
+ * compact {@link MessageBatch} form. {@link PresenceEvent}s share the queue,
+ * so a join or leave reaches the observer in order with the messages around
+ * it, but go out through their own {@link ChatObserver#notifyPresence} call.
+ */
+public class ObserverMailbox {
+    // Time of one observer call, shared by all subscriptions; a batch is one call
+    private static final LatencyStats CALLBACKS = ServerMetrics.phase("observer.callback");
+
+    private final int chatId;
+    private final int userId;
+    private final String nickname;
+    private final ChatObserver observer;
+    private final FanoutSettings settings;
+    private final Consumer<ObserverMailbox> evictionListener;
+    private volatile boolean batchSupported = true;
+    private volatile boolean presenceSupported = true;
+
+    // MessageView or PresenceEvent
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int missed; // messages skipped under COALESCE, guarded by lock
+    private volatile boolean closed;
+    private Thread sender;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder callbacks = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ObserverMailbox(int chatId, int userId, String nickname, ChatObserver observer,
+                           FanoutSettings settings, Consumer<ObserverMailbox> evictionListener) {
+        this.chatId = chatId;
+        this.userId = userId;
+        this.nickname = nickname;
+        this.observer = observer;
+        this.settings = settings;
+        this.evictionListener = evictionListener;
+    }
+
+    public int getChatId() {
+        return chatId;
+    }
+
+    public ChatObserver getObserver() {
+        return observer;
+    }
+
+    public void start(ThreadFactory threadFactory) {
+        sender = threadFactory.newThread(this::run);
+        sender.start();
+    }
+
+    public void offer(MessageView message) {
+        enqueue(message);
+    }
+
+    public void offer(PresenceEvent event) {
+        enqueue(event);
+    }
+
+    private void enqueue(Object item) {
+        boolean evict = false;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (missed > 0 || pending.size() >= settings.queueCapacity()) {
+                switch (settings.overflowPolicy()) {
+                    case DROP_OLDEST -> {
+                        pending.pollFirst();
+                        pending.addLast(item);
+                        dropped.increment();
+                    }
+                    case COALESCE -> {
+                        if (item instanceof MessageView) {
+                            // Keep skipping until the marker went out, so the client sees one gap
+                            missed++;
+                            dropped.increment();
+                        } else if (pending.size() < settings.queueCapacity()) {
+                            // Joins and leaves are no messages, they neither end the gap nor count in it
+                            pending.addLast(item);
+                        } else {
+                            dropped.increment();
+                        }
+                    }
+                    case EVICT -> evict = true;
+                }
+            } else {
+                pending.addLast(item);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (evict) {
+            evict();
+        }
+    }
+
+    /**
+     * Stops the sender and discards whatever is still queued.
+     *
+     * @return false if the mailbox was already closed
+     */
+    public boolean close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            pending.clear();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // Also breaks a callback that is stuck on a hung client
+        if (sender != null && sender != Thread.currentThread()) {
+            sender.interrupt();
+        }
+        return true;
+    }
+
+    public ObserverQueueStats stats() {
+        int depth;
+        lock.lock();
+        try {
+            depth = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        return new ObserverQueueStats(chatId, userId, nickname, depth, settings.queueCapacity(),
+                delivered.sum(), callbacks.sum(), dropped.sum(), failed.sum());
+    }
+
+    private void evict() {
+        if (close()) {
+            evictionListener.accept(this);
+        }
+    }
+
+    private void run() {
+        List<Object> batch;
+        while ((batch = nextBatch()) != null) {
+            try {
+                deliver(batch);
+                delivered.add(batch.size());
+            } catch (NoSuchObjectException | ConnectException e) {
+                // The client is gone, nothing else will ever reach it
+                failed.increment();
+                evict();
+            } catch (RemoteException e) {
+                // Closing interrupts a callback in flight, that is no failure of the client
+                if (!closed) {
+                    failed.increment();
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void deliver(List<Object> batch) throws RemoteException {
+        List<MessageView> messages = new ArrayList<>(batch.size());
+        for (Object item : batch) {
+            if (item instanceof MessageView message) {
+                messages.add(message);
+            } else if (item instanceof PresenceEvent event) {
+                deliverMessages(messages);
+                messages.clear();
+                deliverPresence(event);
+            }
+        }
+        deliverMessages(messages);
+    }
+
+    private void deliverPresence(PresenceEvent event) throws RemoteException {
+        if (presenceSupported) {
+            try {
+                callback(() -> observer.notifyPresence(event));
+                return;
+            } catch (RemoteException e) {
+                if (!isUnknownMethod(e)) {
+                    throw e;
+                }
+                presenceSupported = false;
+            }
+        }
+        callback(() -> observer.notifyNewMessage(event.text(), chatId));
+    }
+
+    private void deliverMessages(List<MessageView> batch) throws RemoteException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batchSupported) {
+            try {
+                callback(() -> observer.notifyMessages(MessageBatch.of(batch), chatId));
+                return;
+            } catch (RemoteException e) {
+                if (!isUnknownMethod(e)) {
+                    throw e;
+                }
+                batchSupported = false;
+            }
+        }
+        for (MessageView message : batch) {
+            callback(() -> observer.notifyNewMessage(message.body(), chatId));
+        }
+    }
+
+    private void callback(Callback callback) throws RemoteException {
+        callbacks.increment();
+        long start = System.nanoTime();
+        try {
+            callback.call();
+        } catch (RemoteException e) {
+            CALLBACKS.recordError();
+            throw e;
+        } finally {
+            CALLBACKS.recordSince(start);
+        }
+    }
+
+    private interface Callback {
+        void call() throws RemoteException;
+    }
+
+    // Older clients lack the newer callbacks, RMI rejects the unknown method before running anything
+    private static boolean isUnknownMethod(RemoteException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnmarshalException && cause.getMessage() != null
+                    && cause.getMessage().contains("unrecognized method hash")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Object> nextBatch() {
+        lock.lock();
+        try {
+            while (!closed && pending.isEmpty() && missed == 0) {
+                notEmpty.await();
+            }
+            // Give a burst the batch window to accumulate
+            long remaining = settings.batchWindowNanos();
+            while (!closed && missed == 0 && pending.size() < settings.maxBatch() && remaining > 0) {
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            if (closed) {
+                return null;
+            }
+            List<Object> batch = new ArrayList<>(Math.min(pending.size() + 1, settings.maxBatch()));
+            while (batch.size() < settings.maxBatch() && !pending.isEmpty()) {
+                batch.add(pending.pollFirst());
+            }
+            if (pending.isEmpty() && missed > 0 && batch.size() < settings.maxBatch()) {
+                batch.add(MessageView.notice(chatId, "You missed " + missed + " messages"));
+                missed = 0;
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.server.fanout;
+
+/**
+ * What a subscription does when its outbound queue is full.
+ */
+public enum OverflowPolicy {
+    /** Discard the oldest queued message to make room for the new one. */
+    DROP_OLDEST,
+    /** Stop queueing and send a single "you missed N messages" marker once the queue has drained. */
+    COALESCE,
+    /** Drop the subscription and close the observer's chat log. */
+    EVICT;
+
+    public static OverflowPolicy fromSystemProperty(String key, OverflowPolicy defaultPolicy) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultPolicy;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown overflow policy '" + value + "', using " + defaultPolicy);
+            return defaultPolicy;
+        }
+    }
+}
@@ -2,24 +2,33 @@ package org.example.server.impl;
 
 import org.example.domain.ChatLog;
 import org.example.domain.User;
+import org.example.domain.id.Snowflake;
 import org.example.rmi.ChatLogService;
+import org.example.server.presence.PresenceIndex;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
-public class ChatLogServiceImpl extends UnicastRemoteObject implements ChatLogService {
+public class ChatLogServiceImpl implements ChatLogService {
     private final SessionFactory sessionFactory;
+    private final PresenceIndex presence;
+    private final ChatLogWriter chatLogWriter;
 
-    public ChatLogServiceImpl(SessionFactory sessionFactory) throws RemoteException {
+    public ChatLogServiceImpl(SessionFactory sessionFactory) {
+        this(sessionFactory, new PresenceIndex(), new ChatLogWriter(sessionFactory));
+    }
+
+    public ChatLogServiceImpl(SessionFactory sessionFactory, PresenceIndex presence, ChatLogWriter chatLogWriter) {
 //        super();
         this.sessionFactory = sessionFactory;
+        this.presence = presence;
+        this.chatLogWriter = chatLogWriter;
 
 //        Configuration configuration = new Configuration();
 //        configuration.addAnnotatedClass(User.class);
@@ -30,22 +39,20 @@ public class ChatLogServiceImpl extends UnicastRemoteObject implements ChatLogSe
 
     @Override
     public ChatLog login(int user_id) throws RemoteException {
-        try (Session session = sessionFactory.openSession()) {
-            Transaction transaction = session.beginTransaction();
-
-            // Close any existing active sessions first
-            session.createQuery("UPDATE ChatLog SET end_time = :now WHERE user_id = :userId AND end_time IS NULL")
-                    .setParameter("now", LocalDateTime.now())
-                    .setParameter("userId", user_id)
-                    .executeUpdate();
-
-            // Create new session
+        try {
+            // The id is taken up front so the session can be returned before its row is written
             ChatLog chatLog = new ChatLog();
+            chatLog.setChat_id(Snowflake.shared().nextId());
             chatLog.setUser_id(user_id);
             chatLog.setStart_time(LocalDateTime.now());
+            chatLogWriter.insert(chatLog);
 
-            session.persist(chatLog);
-            transaction.commit();
+            // Close any existing active session
+            ChatLog previous = presence.login(chatLog);
+            if (previous != null) {
+                previous.setEnd_time(LocalDateTime.now());
+                chatLogWriter.update(previous);
+            }
             return chatLog;
         } catch (Exception e) {
             throw new RemoteException("Login error", e);
@@ -54,55 +61,22 @@ public class ChatLogServiceImpl extends UnicastRemoteObject implements ChatLogSe
 
     @Override
     public ChatLog logout(int user_id) throws RemoteException {
-        try (Session session = sessionFactory.openSession()) {
-            Transaction transaction = session.beginTransaction();
-
-            // Retrieve the active chat log for the user
-            ChatLog chatLog = session.createQuery(
-                            "FROM ChatLog WHERE user_id = :user_id AND end_time IS NULL ORDER BY start_time DESC",
-                            ChatLog.class
-                    )
-                    .setParameter("user_id", user_id)
-                    .setMaxResults(1)
-                    .uniqueResult();
-
-            if (chatLog != null) {
-                chatLog.setEnd_time(LocalDateTime.now());
-                session.update(chatLog); // Persist changes
-                transaction.commit();
-                System.out.println("User with ID " + user_id + " has been logged out.");
-                return chatLog; // Return updated ChatLog
-            } else {
-                System.out.println("No active chat found for user with ID " + user_id);
-                transaction.rollback();
-                return null; // No active chat log found
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RemoteException("Error while logging out", e);
+        ChatLog chatLog = presence.logout(user_id);
+        if (chatLog == null) {
+            System.out.println("No active chat found for user with ID " + user_id);
+            return null; // No active chat log found
         }
+        chatLog.setEnd_time(LocalDateTime.now());
+        chatLogWriter.update(chatLog);
+        System.out.println("User with ID " + user_id + " has been logged out.");
+        return chatLog; // Return updated ChatLog
     }
 
-
-
     @Override
     public Boolean isUserOnline(int user_id) throws RemoteException {
-        System.out.println(user_id);
-        System.out.println("Checking if user is online...");
-        try (Session session = sessionFactory.openSession()) {
-            ChatLog chatLog = session.createQuery(
-                            "FROM ChatLog WHERE user_id = :user_id AND end_time IS NULL ORDER BY start_time DESC",
-                            ChatLog.class
-                    )
-                    .setParameter("user_id", user_id)
-                    .setMaxResults(1)
-                    .uniqueResult();
-
-
-            System.out.println("retur: " + (chatLog != null));
-            return chatLog != null;
-        }
+        return presence.isOnline(user_id);
     }
+
     public List<ChatLog> getChatLogsWithNullEndTime() {
         try (Session session = sessionFactory.openSession()) {
             // HQL query to fetch all ChatLog entities where end_time is NULL
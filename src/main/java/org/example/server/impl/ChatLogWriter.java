@@ -0,0 +1,106 @@
+package org.example.server.impl;
+
+import org.example.domain.ChatLog;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes chat_log rows behind the calls that change them. Sessions live in
+ * the {@link org.example.server.presence.PresenceIndex}, so logging in or
+ * out does not wait for the database. Writes run on one thread in the order
+ * they were queued; each works on a copy taken when it was queued.
+ */
+public class ChatLogWriter {
+    private final SessionFactory sessionFactory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-log-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChatLogWriter(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Queues the insert of a new session, its id must already be assigned.
+     */
+    public void insert(ChatLog chatLog) {
+        ChatLog copy = copyOf(chatLog);
+        executor.execute(() -> write(copy, true));
+    }
+
+    public void update(ChatLog chatLog) {
+        ChatLog copy = copyOf(chatLog);
+        executor.execute(() -> write(copy, false));
+    }
+
+    /**
+     * Ends every session still open in the database. Run once at startup,
+     * sessions of a previous run were never logged out.
+     */
+    public int closeOpenSessions() {
+        Transaction tx = null;
+        try (Session session = sessionFactory.openSession()) {
+            tx = session.beginTransaction();
+            int closed = session.createMutationQuery("UPDATE ChatLog SET end_time = :now WHERE end_time IS NULL")
+                    .setParameter("now", LocalDateTime.now())
+                    .executeUpdate();
+            tx.commit();
+            return closed;
+        } catch (RuntimeException e) {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting writes and waits for the queued ones.
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void write(ChatLog chatLog, boolean insert) {
+        Transaction tx = null;
+        try (Session session = sessionFactory.openSession()) {
+            tx = session.beginTransaction();
+            if (insert) {
+                session.persist(chatLog);
+            } else {
+                // Only the fields a session changes after login, without loading the row
+                session.createMutationQuery(
+                                "UPDATE ChatLog SET end_time = :endTime, chatFilePath = :filePath WHERE chat_id = :id")
+                        .setParameter("endTime", chatLog.getEnd_time())
+                        .setParameter("filePath", chatLog.getChatFilePath())
+                        .setParameter("id", chatLog.getChat_id())
+                        .executeUpdate();
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            System.err.println("Error writing chat log " + chatLog.getChat_id() + ": " + e.getMessage());
+        }
+    }
+
+    private static ChatLog copyOf(ChatLog chatLog) {
+        ChatLog copy = new ChatLog();
+        copy.setChat_id(chatLog.getChat_id());
+        copy.setUser_id(chatLog.getUser_id());
+        copy.setStart_time(chatLog.getStart_time());
+        copy.setEnd_time(chatLog.getEnd_time());
+        copy.setChatFilePath(chatLog.getChatFilePath());
+        return copy;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.server.impl;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the per-chat message sequence. The last value of a chat is read
+ * from the database the first time the chat is written to after startup.
+ */
+public class ChatSequencer {
+    private final SessionFactory sessionFactory;
+    private final Map<Integer, AtomicLong> lastSequence = new ConcurrentHashMap<>();
+
+    public ChatSequencer(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public long next(int chatId) {
+        return lastSequence.computeIfAbsent(chatId, this::loadLastSequence).incrementAndGet();
+    }
+
+    /**
+     * Drops the cached sequence of a chat, the next message reads it from the
+     * database again. Used when sequences were handed out to a failed write.
+     */
+    public void forget(int chatId) {
+        lastSequence.remove(chatId);
+    }
+
+    private AtomicLong loadLastSequence(int chatId) {
+        try (Session session = sessionFactory.openSession()) {
+            Long max = session.createQuery(
+                            "SELECT MAX(m.seq) FROM ChatMessage m WHERE m.chatGroup.chatId = :chatId", Long.class)
+                    .setParameter("chatId", chatId)
+                    .uniqueResult();
+            return new AtomicLong(max != null ? max : 0);
+        }
+    }
+}
@@ -2,24 +2,73 @@ package org.example.server.impl;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.example.domain.*;
+import org.example.dto.GroupSummary;
+import org.example.dto.MessageBatch;
+import org.example.dto.MessageView;
+import org.example.dto.Page;
+import org.example.dto.PageRequest;
+import org.example.dto.PresenceEvent;
+import org.example.dto.ObserverQueueStats;
+import org.example.dto.RecentCacheStats;
+import org.example.dto.UserSummary;
 import org.example.rmi.*;
+import org.example.server.archive.ChatArchive;
+import org.example.server.cache.RecentMessageCache;
+import org.example.server.fanout.ObserverDispatcher;
+import org.example.server.presence.PresenceIndex;
+import org.example.server.search.MessageIndex;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 
+import java.nio.file.Path;
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
-public class ChatServiceImpl extends UnicastRemoteObject implements ChatService {
-    private List<ChatObserver> observers = new ArrayList<>();
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ChatServiceImpl implements ChatService {
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long COMMIT_TIMEOUT_SECONDS = 10;
+    private static final Map<String, String> CHAT_SORT_COLUMNS = Map.of(
+            "chatId", "c.chatId",
+            "chatName", "c.chatName",
+            "description", "c.description",
+            "adminId", "a.user_id",
+            "adminUsername", "a.username");
+    private static final String[] CHAT_FILTER_COLUMNS = {"c.chatName", "c.description", "a.username"};
+    private final ObserverDispatcher observers = new ObserverDispatcher();
     private final SessionFactory sessionFactory;
-    public ChatServiceImpl(SessionFactory sessionFactory) throws RemoteException {
+    private final MessageWriter messageWriter;
+    private final RecentMessageCache recentMessages;
+    private final PresenceIndex presence;
+    private final ChatLogWriter chatLogWriter;
+    private final ChatArchive archive;
+    private final MessageIndex messageIndex = new MessageIndex();
+    public ChatServiceImpl(SessionFactory sessionFactory) {
+        this(sessionFactory, new PresenceIndex(), new ChatLogWriter(sessionFactory));
+    }
+
+    // Shares presence with the ChatLogService, see ServerDemo
+    public ChatServiceImpl(SessionFactory sessionFactory, PresenceIndex presence, ChatLogWriter chatLogWriter) {
         this.sessionFactory = sessionFactory;
-        this.observers = new ArrayList<>();
+        this.presence = presence;
+        this.chatLogWriter = chatLogWriter;
+        this.archive = new ChatArchive(sessionFactory);
+        messageIndex.loadInBackground(sessionFactory);
+        this.recentMessages = new RecentMessageCache(
+                (chatId, limit) -> getMessagePage(chatId, "", null, limit, false));
+        // Committed messages are published by the writer thread, in commit order
+        this.messageWriter = new MessageWriter(sessionFactory, new ChatSequencer(sessionFactory), this::messageCommitted);
     }
 
     @PersistenceContext
@@ -43,7 +92,6 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
             Transaction tx = session.beginTransaction();
             session.persist(chat);
             tx.commit();
-            System.out.println("Chat created: " + chat.getChatName()); // Log success
         } catch (Exception e) {
             System.err.println("Error creating chat: " + e.getMessage()); // Log error
             throw new RemoteException("Error creating chat", e);
@@ -62,16 +110,21 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
             }
 
             transaction.commit();
+            recentMessages.invalidate(chatId);
         } catch (Exception e) {
             throw new RemoteException("Error deleting chat", e);
         }
     }
 
     @Override
-    public List<User> getUsersInChat(int chatId) throws RemoteException {
+    public List<UserSummary> getUsersInChat(int chatId) throws RemoteException {
         try (Session session = sessionFactory.openSession()) {
-            ChatGroup group = session.get(ChatGroup.class, chatId);
-            return new ArrayList<>(group.getParticipants());
+            return session.createQuery(
+                            "SELECT new org.example.dto.UserSummary(u.user_id, u.email, u.username, u.nickname, u.role) " +
+                                    "FROM ChatGroup g JOIN g.participants u WHERE g.chatId = :chatId",
+                            UserSummary.class)
+                    .setParameter("chatId", chatId)
+                    .list();
         } catch (Exception e) {
             throw new RemoteException("Error fetching users", e);
         }
@@ -82,13 +135,12 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
         try (Session session = sessionFactory.openSession()) {
             Transaction tx = session.beginTransaction();
 
-            ChatGroup group = session.get(ChatGroup.class, chatId);
-            User user = session.get(User.class, userId);
-
-            if (group != null && user != null) {
-                group.getParticipants().remove(user);
-                session.update(group);
-            }
+            // Deletes the membership row directly instead of loading every participant of the group
+            session.createMutationQuery(
+                            "DELETE FROM ChatUser cu WHERE cu.id.userId = :userId AND cu.id.groupId = :chatId")
+                    .setParameter("userId", userId)
+                    .setParameter("chatId", chatId)
+                    .executeUpdate();
 
             tx.commit();
         } catch (Exception e) {
@@ -110,30 +162,16 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
                 return;
             }
 
-            if (observers == null) {
-                System.err.println("Observers list not initialized");
-                return;
-            }
-
-            // Remove observer safely
-            if (observers.remove(observer)) {
-                System.out.println("Unsubscribed user " + user.getUsername() + " from chat " + chatId);
-
+            // Remove observer from this chat only
+            if (observers.unsubscribe(chatId, observer)) {
                 // Additional cleanup logic
                 if (chatLog != null) {
                     chatLog.setEnd_time(LocalDateTime.now());
-
-                    // Get the formatted time
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
-                    String formattedTime = chatLog.getEnd_time().format(formatter);
-
-                    // Notify all observers that user has left
-                    String leftMessage = user.getNickname() + " left: " + formattedTime;
-                    notifyAllObservers(leftMessage, chatId);
-
-                    // Check if this was the last user in the chat
-                    checkLastUserAndSaveChat(chatId, chatLog);
                 }
+                observers.publish(chatId, PresenceEvent.left(chatId, user.getUser_id(), user.getNickname()));
+
+                // Check if this was the last user in the chat
+                checkLastUserAndSaveChat(chatId, user.getUser_id(), chatLog);
             } else {
                 System.err.println("Observer not found in subscribers list");
             }
@@ -149,162 +187,264 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
 
 
     @Override
-    public List<ChatMessage> getAllChatMessages(int chatId) throws RemoteException {
+    public List<MessageView> getAllChatMessages(int chatId) throws RemoteException {
         try (Session session = sessionFactory.openSession()) {
-            return session.createQuery(
-                            "SELECT m FROM ChatMessage m WHERE m.chatGroup.chatId = :chatId ORDER BY m.start_at ASC",
-                            ChatMessage.class
+            return new MessageBatch(session.createQuery(
+                            "SELECT new org.example.dto.MessageView(m.message_id, m.chatGroup.chatId, " +
+                                    "u.user_id, u.nickname, m.message, m.start_at, COALESCE(m.seq, 0L)) " +
+                                    "FROM ChatMessage m JOIN m.user u " +
+                                    "WHERE m.chatGroup.chatId = :chatId ORDER BY m.start_at ASC",
+                            MessageView.class
                     )
                     .setParameter("chatId", chatId)
-                    .list();
+                    .list());
         } catch (Exception e) {
             throw new RemoteException("Error fetching chat messages", e);
         }
     }
 
 
+    // Recent pages come from the cache, only pages reaching past it query the database.
+    // Pages go to the client as a MessageBatch, the compact wire form of a list of lines.
     @Override
-    public List<ChatGroup> getAllChats() throws RemoteException {
-        try (Session session = sessionFactory.openSession()) {
-            return session.createQuery(
-                    "SELECT c FROM ChatGroup c LEFT JOIN FETCH c.admin",
-                    ChatGroup.class
-            ).list();
+    public List<MessageView> getRecentMessages(int chatId, int limit) throws RemoteException {
+        int pageSize = pageSize(limit);
+        List<MessageView> cached = recentMessages.latest(chatId, pageSize);
+        return new MessageBatch(cached != null ? cached : getMessagePage(chatId, "", null, pageSize, false));
+    }
+
+    @Override
+    public List<MessageView> getMessagesBefore(int chatId, long beforeMessageId, int limit) throws RemoteException {
+        int pageSize = pageSize(limit);
+        List<MessageView> page = recentMessages.before(chatId, beforeMessageId, pageSize);
+        if (page == null) {
+            page = getMessagePage(chatId, "AND m.message_id < :cursor ", beforeMessageId, pageSize, false);
+        }
+        if (page.size() < pageSize) {
+            // The database ran out before the page was full, older messages may only be archived
+            long oldest = page.isEmpty() ? beforeMessageId : page.get(0).messageId();
+            page = olderFromArchive(chatId, oldest, pageSize - page.size(), page);
+        }
+        return new MessageBatch(page);
+    }
+
+    private List<MessageView> olderFromArchive(int chatId, long beforeMessageId, int limit, List<MessageView> newer) {
+        try {
+            List<MessageView> older = archive.reader().before(chatId, beforeMessageId, limit);
+            if (older.isEmpty()) {
+                return newer;
+            }
+            List<MessageView> page = new ArrayList<>(older.size() + newer.size());
+            page.addAll(older);
+            page.addAll(newer);
+            return page;
         } catch (Exception e) {
-            throw new RemoteException("Error fetching chats", e);
+            System.err.println("Error reading chat archive of chat " + chatId + ": " + e.getMessage());
+            return newer;
         }
     }
 
     @Override
-    public void sendMessage(String message, User sender, int chatId) throws RemoteException {
-        Transaction tx = null;
-        try (Session session = sessionFactory.openSession()) {
-            System.out.println("test 1");
-            tx = session.beginTransaction();
+    public List<MessageView> getMessagesSince(int chatId, long afterMessageId, int limit) throws RemoteException {
+        int pageSize = pageSize(limit);
+        List<MessageView> cached = recentMessages.since(chatId, afterMessageId, pageSize);
+        return new MessageBatch(cached != null ? cached
+                : getMessagePage(chatId, "AND m.message_id > :cursor ", afterMessageId, pageSize, true));
+    }
 
-            // Load existing ChatGroup from DB
-            ChatGroup chatGroup = session.get(ChatGroup.class, chatId);
-            System.out.println("test 2");
-            if (chatGroup == null) {
-                throw new IllegalArgumentException("Chat group not found with id: " + chatId);
+    @Override
+    public List<MessageView> searchMessages(String query, Integer chatId, LocalDateTime from, LocalDateTime to,
+                                            int limit) throws RemoteException {
+        List<Long> ids = messageIndex.search(query, chatId, from, to, pageSize(limit));
+        if (ids.isEmpty()) {
+            return new MessageBatch(List.of());
+        }
+        try (Session session = sessionFactory.openSession()) {
+            // Hits are fetched by primary key and returned in the index's order, newest first
+            Map<Long, MessageView> found = new HashMap<>();
+            for (MessageView message : session.createQuery(
+                            "SELECT new org.example.dto.MessageView(m.message_id, m.chatGroup.chatId, " +
+                                    "u.user_id, u.nickname, m.message, m.start_at, COALESCE(m.seq, 0L)) " +
+                                    "FROM ChatMessage m JOIN m.user u WHERE m.message_id IN :ids",
+                            MessageView.class)
+                    .setParameter("ids", ids)
+                    .list()) {
+                found.put(message.messageId(), message);
+            }
+            List<MessageView> results = new ArrayList<>(found.size());
+            for (Long id : ids) {
+                MessageView message = found.get(id);
+                if (message != null) {
+                    results.add(message);
+                }
             }
+            return new MessageBatch(results);
+        } catch (Exception e) {
+            throw new RemoteException("Error searching messages", e);
+        }
+    }
 
-            System.out.println("test 3");
-            ChatMessage chatMessage = new ChatMessage();
-            chatMessage.setUser(sender); // sender must also be attached/managed
-            chatMessage.setChatGroup(chatGroup);
-            chatMessage.setMessage(sender.getNickname() + ": " + message);
-            chatMessage.setStart_at(LocalDateTime.now());
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 
-            session.persist(chatMessage);
+    // Walks the (chat_id, message_id) index from the cursor and never reads more than one page
+    private List<MessageView> getMessagePage(int chatId, String cursorClause, Long cursor, int limit, boolean ascending)
+            throws RemoteException {
+        try (Session session = sessionFactory.openSession()) {
+            var query = session.createQuery(
+                            "SELECT new org.example.dto.MessageView(m.message_id, m.chatGroup.chatId, " +
+                                    "u.user_id, u.nickname, m.message, m.start_at, COALESCE(m.seq, 0L)) " +
+                                    "FROM ChatMessage m JOIN m.user u " +
+                                    "WHERE m.chatGroup.chatId = :chatId " + cursorClause +
+                                    "ORDER BY m.message_id " + (ascending ? "ASC" : "DESC"),
+                            MessageView.class
+                    )
+                    .setParameter("chatId", chatId)
+                    .setMaxResults(limit);
+            if (cursor != null) {
+                query.setParameter("cursor", cursor);
+            }
+            List<MessageView> page = new ArrayList<>(query.list());
+            if (!ascending) {
+                Collections.reverse(page);
+            }
+            return page;
+        } catch (Exception e) {
+            throw new RemoteException("Error fetching chat messages", e);
+        }
+    }
 
-            tx.commit();
-            System.out.println("Message sent and saved to DB");
+    @Override
+    public List<GroupSummary> getAllChats() throws RemoteException {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(
+                    "SELECT new org.example.dto.GroupSummary(c.chatId, c.chatName, c.description, a.user_id, a.username) " +
+                            "FROM ChatGroup c LEFT JOIN c.admin a",
+                    GroupSummary.class
+            ).list();
+        } catch (Exception e) {
+            throw new RemoteException("Error fetching chats", e);
+        }
+    }
 
-            notifyAllObservers(sender.getNickname() + ": " + message, chatId);
+    @Override
+    public Page<GroupSummary> getChats(PageRequest request) throws RemoteException {
+        try (Session session = sessionFactory.openSession()) {
+            return PageQueries.fetch(session, GroupSummary.class,
+                    "SELECT new org.example.dto.GroupSummary(c.chatId, c.chatName, c.description, a.user_id, a.username)",
+                    "FROM ChatGroup c LEFT JOIN c.admin a", "c.chatId", CHAT_SORT_COLUMNS, CHAT_FILTER_COLUMNS, request);
         } catch (Exception e) {
-            if (tx != null && tx.getStatus().canRollback()) {
-                tx.rollback();
+            throw new RemoteException("Error fetching chats", e);
+        }
+    }
+
+    @Override
+    public void sendMessage(String message, User sender, int chatId) throws RemoteException {
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.setUser(sender); // only its id is written, the sender stays detached
+        chatMessage.setMessage(sender.getNickname() + ": " + message);
+        // Stored with microseconds, so the cached copy equals what the database returns
+        chatMessage.setStart_at(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        // Returns once the writer's batch holding this message has committed
+        awaitCommit(messageWriter.submit(chatMessage, chatId), "Error sending message");
+    }
+
+    private void awaitCommit(CompletableFuture<ChatMessage> commit, String error) throws RemoteException {
+        try {
+            commit.get(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new RemoteException(error, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!messageWriter.withdraw(commit)) {
+                throw new RemoteException(error + ": interrupted, the message may still be stored", e);
+            }
+            throw new RemoteException(error, e);
+        } catch (TimeoutException e) {
+            // Failing the call must mean the message was not stored, or a retry would post it twice
+            if (messageWriter.withdraw(commit)) {
+                throw new RemoteException(error + ": timed out waiting for the database, the message was not sent", e);
             }
-            throw new RemoteException("Error sending message", e);
+            awaitInFlight(commit, error);
+        }
+    }
+
+    // Already in a batch that is being written, its transaction decides
+    private void awaitInFlight(CompletableFuture<ChatMessage> commit, String error) throws RemoteException {
+        try {
+            commit.get(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new RemoteException(error, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException(error + ": interrupted, the message may still be stored", e);
+        } catch (TimeoutException e) {
+            throw new RemoteException(error + ": the message was accepted and is still being stored, do not resend", e);
         }
     }
 
 
     @Override
     public void subscribe(User user, ChatObserver observer, ChatLog chatLog, int chatId) throws RemoteException {
-        observers.add(observer);
-
-        // Get the formatted time
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
-        String formattedTime = chatLog.getStart_time().format(formatter);
-        sendMessage(user.getNickname() + " joined: " + formattedTime, user, chatId);
-        notifyAllObservers(user.getNickname() + " joined: "+ formattedTime, chatId); // Send message to all observers
+        // A client that cannot keep up may get evicted, its session ends with it
+        if (!observers.subscribe(chatId, user.getUser_id(), user.getNickname(), observer,
+                () -> endEvictedSession(user, chatLog, chatId))) {
+            return; // already subscribed, membership is counted per subscription
+        }
+        presence.join(chatId, user.getUser_id());
+        // Presence is pushed once and not stored, the history only holds what was said
+        observers.publish(chatId, PresenceEvent.joined(chatId, user.getUser_id(), user.getNickname()));
     }
 
     @Override
     public void unsubscribe(User user, ChatObserver observer, ChatLog chatLog, int chatId) throws RemoteException {
-        observers.remove(observer);
-
-        // Get the formatted time
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
-        String formattedTime = chatLog.getEnd_time().format(formatter);
-        sendMessage(user.getNickname() + " left: " + formattedTime, user, chatId);
-        notifyAllObservers(user.getNickname() + " left: " + formattedTime, chatId);
+        if (!observers.unsubscribe(chatId, observer)) {
+            return;
+        }
+        observers.publish(chatId, PresenceEvent.left(chatId, user.getUser_id(), user.getNickname()));
 
         // Check if this was the last user in the chat
-        checkLastUserAndSaveChat(chatId, chatLog);
+        checkLastUserAndSaveChat(chatId, user.getUser_id(), chatLog);
     }
 
-    private void checkLastUserAndSaveChat(int chatId, ChatLog chatLog) throws RemoteException {
-        try (Session session = sessionFactory.openSession()) {
-            // Count active users in this chat (users with ChatLog entries where end_time is NULL)
-            Long activeUsersCount = session.createQuery(
-                    "SELECT COUNT(c) FROM ChatLog c WHERE c.chat_id = :chatId AND c.end_time IS NULL",
-                    Long.class
-                )
-                .setParameter("chatId", chatId)
-                .uniqueResult();
-
-            if (activeUsersCount != null && activeUsersCount == 0) {
-                // This was the last user, save chat history and update log
-                LocalDateTime endTime = LocalDateTime.now();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
-                String formattedTime = endTime.format(formatter);
-
-                // Notify that chat has stopped
-                String stopMessage = "Chat stopped at: " + formattedTime;
-                notifyAllObservers(stopMessage, chatId);
-
-                // Save chat history to file
-                String filePath = saveChatHistoryToFile(chatId);
-
-                // Update the ChatLog with the file path
-                if (chatLog != null && filePath != null) {
-                    Transaction tx = session.beginTransaction();
-                    chatLog.setChatFilePath(filePath);
-                    session.update(chatLog);
-                    tx.commit();
-                }
+    private void checkLastUserAndSaveChat(int chatId, int userId, ChatLog chatLog) throws RemoteException {
+        try {
+            // Membership is tracked in memory, only the last member to leave stops the chat
+            if (!presence.leave(chatId, userId)) {
+                return;
+            }
+
+            // This was the last user, save chat history and update log
+            LocalDateTime endTime = LocalDateTime.now();
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
+            String formattedTime = endTime.format(formatter);
+
+            // Notify that chat has stopped
+            String stopMessage = "Chat stopped at: " + formattedTime;
+            notifyAllObservers(stopMessage, chatId);
+
+            // Append the messages since the last stop to the chat's archive
+            String filePath = saveChatHistoryToFile(chatId);
+
+            // Update the ChatLog with the file path
+            if (chatLog != null && filePath != null) {
+                chatLog.setChatFilePath(filePath);
+                chatLogWriter.update(chatLog);
             }
         } catch (Exception e) {
             throw new RemoteException("Error checking last user in chat", e);
         }
     }
 
-    private String saveChatHistoryToFile(int chatId) throws RemoteException {
+    private String saveChatHistoryToFile(int chatId) {
         try {
-            // Get all messages for this chat
-            List<ChatMessage> messages = getAllChatMessages(chatId);
-            if (messages.isEmpty()) {
+            Path chatFile = archive.append(chatId);
+            if (chatFile == null) {
                 return null;
             }
-
-            // Create directory for chat logs if it doesn't exist
-            java.io.File chatLogsDir = new java.io.File("chat_logs");
-            if (!chatLogsDir.exists()) {
-                chatLogsDir.mkdir();
-            }
-
-            // Create file name with timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String fileName = "chat_" + chatId + "_" + timestamp + ".txt";
-            java.io.File chatFile = new java.io.File(chatLogsDir, fileName);
-
-            // Write messages to file
-            try (java.io.PrintWriter writer = new java.io.PrintWriter(new java.io.FileWriter(chatFile))) {
-                writer.println("Chat ID: " + chatId);
-                writer.println("Saved at: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                writer.println("----------------------------------------");
-
-                for (ChatMessage message : messages) {
-                    String formattedTime = message.getStart_at().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                    writer.println("[" + formattedTime + "] " + message.getMessage());
-                }
-            }
-
-            System.out.println("Chat history saved to: " + chatFile.getAbsolutePath());
-            return chatFile.getAbsolutePath();
+            return chatFile.toAbsolutePath().toString();
         } catch (Exception e) {
             System.err.println("Error saving chat history: " + e.getMessage());
             e.printStackTrace();
@@ -312,10 +452,49 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
         }
     }
 
+    private void endEvictedSession(User user, ChatLog chatLog, int chatId) {
+        int userId = user.getUser_id();
+        observers.publish(chatId, PresenceEvent.left(chatId, userId, user.getNickname()));
+        try {
+            if (chatLog != null) {
+                // A later login of the same user is left alone
+                ChatLog session = presence.logout(userId, chatLog.getChat_id());
+                ChatLog ended = session != null ? session : chatLog;
+                ended.setEnd_time(LocalDateTime.now());
+                chatLogWriter.update(ended);
+            }
+            checkLastUserAndSaveChat(chatId, userId, chatLog);
+        } catch (Exception e) {
+            System.err.println("Error closing chat log: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<ObserverQueueStats> getObserverQueueStats() throws RemoteException {
+        return new ArrayList<>(observers.queueStats());
+    }
+
     @Override
-    public List<User> getAllUsers() throws RemoteException {
+    public RecentCacheStats getRecentCacheStats() throws RemoteException {
+        return recentMessages.stats();
+    }
+
+    /**
+     * Writes the queued messages and stops the observer senders, before the
+     * session factory is closed.
+     */
+    public void shutdown() throws InterruptedException {
+        messageWriter.shutdown();
+        observers.shutdown();
+    }
+
+    @Override
+    public List<UserSummary> getAllUsers() throws RemoteException {
         try (Session session = sessionFactory.openSession()) {
-            return session.createQuery("FROM User", User.class).list();
+            return session.createQuery(
+                    "SELECT new org.example.dto.UserSummary(u.user_id, u.email, u.username, u.nickname, u.role) FROM User u",
+                    UserSummary.class
+            ).list();
         } catch (Exception e) {
             throw new RemoteException("Error fetching users", e);
         }
@@ -349,8 +528,6 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
 
             session.persist(chatUser);
             tx.commit();
-
-            System.out.println("User added to group successfully");
         } catch (Exception e) {
             if (tx != null) tx.rollback();
             throw new RemoteException("Error adding user to group", e);
@@ -359,10 +536,8 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
 
     @Override
     public void sendAdminMessage(String message, User adminUser, int groupId) throws RemoteException {
-        Transaction tx = null;
+        ChatMessage chatMessage;
         try (Session session = sessionFactory.openSession()) {
-            tx = session.beginTransaction();
-
             // Verify admin user exists
             User managedAdmin = session.get(User.class, adminUser.getUser_id());
             if (managedAdmin == null) {
@@ -384,31 +559,35 @@ public class ChatServiceImpl extends UnicastRemoteObject implements ChatService
 //                throw new RemoteException("User lacks admin privileges");
 //            }
 
-            // Create and persist message
-            ChatMessage chatMessage = new ChatMessage();
+            // Create the message, the writer persists it with the next batch
+            chatMessage = new ChatMessage();
             chatMessage.setUser(managedAdmin);
-            chatMessage.setChatGroup(chatGroup);
             chatMessage.setMessage(message);
-            chatMessage.setStart_at(LocalDateTime.now());
-
-            session.persist(chatMessage);
-            tx.commit();
-
-            // Notify observers
-            notifyAllObservers(message, groupId);
-
+            chatMessage.setStart_at(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        } catch (RemoteException e) {
+            throw e;
         } catch (Exception e) {
-            if (tx != null && tx.isActive()) tx.rollback();
             throw new RemoteException("Failed to send admin message: " + e.getMessage(), e);
         }
+
+        awaitCommit(messageWriter.submit(chatMessage, groupId), "Failed to send admin message");
     }
 
+    // Server notices that are not stored as chat messages
     private void notifyAllObservers(String message, int chatId) {
-        observers.forEach(obs -> {
-            try { obs.notifyNewMessage(message, chatId); }
-            catch (RemoteException e) { e.printStackTrace(); }
-        });
+        notifyAllObservers(MessageView.notice(chatId, message));
+    }
+
+    private void messageCommitted(MessageView message) {
+        // Cached before it is pushed, a client resyncing on the push already finds it
+        recentMessages.append(message);
+        messageIndex.add(message);
+        notifyAllObservers(message);
+    }
 
+    private void notifyAllObservers(MessageView message) {
+        // Only queues the callbacks, delivery to the room's observers happens off the caller's thread
+        observers.publish(message.chatId(), message);
     }
 
 
@@ -0,0 +1,197 @@
+package org.example.server.impl;
+
+import org.example.domain.ChatGroup;
+import org.example.domain.ChatMessage;
+import org.example.dto.MessageView;
+import org.example.server.metrics.LatencyStats;
+import org.example.server.metrics.ServerMetrics;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Group commit for chat messages. Accepted messages are queued and a single
+ * writer thread inserts them in JDBC batches, one transaction per flush.
+ * A flush happens once {@code chat.persist.maxBatch} messages are queued or
+ * {@code chat.persist.flushMillis} after the first one arrived.
+ * <p>
+ * The writer assigns the per-chat sequences and hands every
+ * committed message to the listener in commit order, so observers of a room
+ * receive its messages in sequence order.
+ * <p>
+ * The time a message waits in the queue and, per batch, the time spent
+ * persisting, committing and fanning out are recorded as the
+ * {@code sendMessage.*} phases of {@link ServerMetrics}.
+ */
+public class MessageWriter {
+    private final SessionFactory sessionFactory;
+    private final ChatSequencer sequencer;
+    private final Consumer<MessageView> onCommitted;
+    private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>();
+    private final int maxBatch = Integer.getInteger("chat.persist.maxBatch", 64);
+    private final long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("chat.persist.flushMillis", 2));
+    private final Thread flusher;
+    private final LatencyStats queuePhase = ServerMetrics.phase("sendMessage.queue");
+    private final LatencyStats persistPhase = ServerMetrics.phase("sendMessage.persist");
+    private final LatencyStats commitPhase = ServerMetrics.phase("sendMessage.commit");
+    private final LatencyStats fanoutPhase = ServerMetrics.phase("sendMessage.fanout");
+    private volatile boolean running = true;
+
+    public MessageWriter(SessionFactory sessionFactory, ChatSequencer sequencer, Consumer<MessageView> onCommitted) {
+        this.sessionFactory = sessionFactory;
+        this.sequencer = sequencer;
+        this.onCommitted = onCommitted;
+        this.flusher = new Thread(this::run, "chat-message-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a message for the next flush.
+     *
+     * @return completes with the stored message once its batch has committed
+     */
+    public CompletableFuture<ChatMessage> submit(ChatMessage message, int chatId) {
+        PendingMessage pending = new PendingMessage(message, chatId, System.nanoTime(), new CompletableFuture<>());
+        if (!running) {
+            pending.done().completeExceptionally(shutDown());
+            return pending.done();
+        }
+        queue.add(pending);
+        // A shutdown in between may have missed it, whoever takes it back out fails it
+        if (!running && queue.remove(pending)) {
+            pending.done().completeExceptionally(shutDown());
+        }
+        return pending.done();
+    }
+
+    /**
+     * Takes a message back out of the queue if no flush has picked it up yet.
+     *
+     * @return false if the message is already being written or done
+     */
+    public boolean withdraw(CompletableFuture<ChatMessage> done) {
+        if (queue.removeIf(pending -> pending.done() == done)) {
+            done.cancel(false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops accepting messages and flushes what is already queued.
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join();
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                List<PendingMessage> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Nothing writes after this thread, fail what is left instead of leaving senders waiting
+            List<PendingMessage> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            leftover.forEach(pending -> pending.done().completeExceptionally(shutDown()));
+        }
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Message writer is shut down");
+    }
+
+    private List<PendingMessage> nextBatch() throws InterruptedException {
+        List<PendingMessage> batch = new ArrayList<>(maxBatch);
+        // Wakes up now and then to notice a shutdown
+        PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        // Wait the flush interval for more writers to join this transaction
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            PendingMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatch - batch.size());
+        }
+        return batch;
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        long start = System.nanoTime();
+        for (PendingMessage pending : batch) {
+            queuePhase.record(start - pending.queuedAt());
+        }
+        try {
+            commit(batch);
+        } catch (RuntimeException e) {
+            commitPhase.recordError();
+            if (batch.size() == 1) {
+                batch.get(0).done().completeExceptionally(e);
+                return;
+            }
+            // Retry one by one so a single bad message only fails its own sender
+            for (PendingMessage pending : batch) {
+                flush(List.of(pending));
+            }
+            return;
+        }
+        long fanoutStart = System.nanoTime();
+        for (PendingMessage pending : batch) {
+            onCommitted.accept(MessageView.of(pending.message()));
+            pending.done().complete(pending.message());
+        }
+        fanoutPhase.recordSince(fanoutStart);
+    }
+
+    private void commit(List<PendingMessage> batch) {
+        Transaction tx = null;
+        try (Session session = sessionFactory.openSession()) {
+            long start = System.nanoTime();
+            session.setJdbcBatchSize(maxBatch);
+            tx = session.beginTransaction();
+            for (PendingMessage pending : batch) {
+                ChatMessage message = pending.message();
+                message.setChatGroup(session.getReference(ChatGroup.class, pending.chatId()));
+                message.setSeq(sequencer.next(pending.chatId()));
+                session.persist(message);
+            }
+            long commitStart = System.nanoTime();
+            persistPhase.record(commitStart - start);
+            // The batched inserts run here, on flush
+            tx.commit();
+            commitPhase.recordSince(commitStart);
+        } catch (RuntimeException e) {
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            // Sequences handed out to the failed batch are read back from the database
+            batch.forEach(pending -> sequencer.forget(pending.chatId()));
+            throw e;
+        }
+    }
+
+    private record PendingMessage(ChatMessage message, int chatId, long queuedAt, CompletableFuture<ChatMessage> done) {
+    }
+}
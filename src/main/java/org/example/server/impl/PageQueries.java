@@ -0,0 +1,57 @@
+package org.example.server.impl;
+
+import org.example.dto.Page;
+import org.example.dto.PageRequest;
+import org.hibernate.Session;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the paged, sorted and filtered list queries behind the admin tables.
+ * Sorting is limited to the columns a list names, so a client cannot put
+ * arbitrary text into the ORDER BY clause.
+ */
+final class PageQueries {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private PageQueries() {
+    }
+
+    /**
+     * @param select        constructor expression of the summary record
+     * @param from          FROM clause including joins
+     * @param filterColumns columns matched against the request's filter
+     * @param sortColumns   summary field name to column, the id column is
+     *                      the default and breaks ties so pages never overlap
+     */
+    static <T extends Serializable> Page<T> fetch(Session session, Class<T> type, String select, String from,
+                                                  String idColumn, Map<String, String> sortColumns,
+                                                  String[] filterColumns, PageRequest request) {
+        String filter = request.filter() != null ? request.filter().strip() : "";
+        StringBuilder where = new StringBuilder();
+        if (!filter.isEmpty()) {
+            for (String column : filterColumns) {
+                where.append(where.isEmpty() ? " WHERE " : " OR ")
+                        .append("LOWER(").append(column).append(") LIKE :filter ESCAPE '!'");
+            }
+        }
+        String direction = request.descending() ? " DESC" : " ASC";
+        String sortColumn = sortColumns.getOrDefault(request.sortBy() != null ? request.sortBy() : "", idColumn);
+        String order = " ORDER BY " + sortColumn + direction
+                + (sortColumn.equals(idColumn) ? "" : ", " + idColumn + direction);
+
+        var count = session.createQuery("SELECT COUNT(*) " + from + where, Long.class);
+        var rows = session.createQuery(select + " " + from + where + order, type);
+        if (!filter.isEmpty()) {
+            String pattern = "%" + filter.toLowerCase(Locale.ROOT)
+                    .replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+            count.setParameter("filter", pattern);
+            rows.setParameter("filter", pattern);
+        }
+        int offset = Math.max(0, request.offset());
+        int limit = Math.clamp(request.limit(), 1, MAX_PAGE_SIZE);
+        return new Page<>(rows.setFirstResult(offset).setMaxResults(limit).list(), offset, count.uniqueResult());
+    }
+}
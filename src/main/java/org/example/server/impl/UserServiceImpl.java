@@ -1,21 +1,31 @@
 package org.example.server.impl;
 
-import org.example.domain.ChatGroup;
 import org.example.domain.User;
+import org.example.dto.GroupSummary;
+import org.example.dto.Page;
+import org.example.dto.PageRequest;
+import org.example.dto.UserSummary;
 import org.example.rmi.UserService;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.util.List;
+import java.util.Map;
+
+public class UserServiceImpl implements UserService {
+    private static final Map<String, String> USER_SORT_COLUMNS = Map.of(
+            "userId", "u.user_id",
+            "email", "u.email",
+            "username", "u.username",
+            "nickname", "u.nickname",
+            "role", "u.role");
+    private static final String[] USER_FILTER_COLUMNS = {"u.username", "u.email", "u.nickname"};
 
-public class UserServiceImpl extends UnicastRemoteObject implements UserService {
     private final SessionFactory sessionFactory;  // Proper SessionFactory
 
-    public UserServiceImpl(SessionFactory sessionFactory) throws RemoteException {
-        super();
+    public UserServiceImpl(SessionFactory sessionFactory) {
         this.sessionFactory = sessionFactory;
     }
 
@@ -24,7 +34,18 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
     public void updateUser(User user) throws RemoteException {
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
-            session.saveOrUpdate(user);
+            // The user arrives without its relationship lists, so only its own columns are written
+            session.createMutationQuery("UPDATE User u SET u.email = :email, u.username = :username, " +
+                            "u.password = :password, u.nickname = :nickname, u.profilePicture = :profilePicture, " +
+                            "u.role = :role WHERE u.user_id = :userId")
+                    .setParameter("email", user.getEmail())
+                    .setParameter("username", user.getUsername())
+                    .setParameter("password", user.getPassword())
+                    .setParameter("nickname", user.getNickname())
+                    .setParameter("profilePicture", user.getProfilePicture())
+                    .setParameter("role", user.getRole())
+                    .setParameter("userId", user.getUser_id())
+                    .executeUpdate();
             session.getTransaction().commit();
         } catch (Exception e) {
             throw new RemoteException("Error updating user", e);
@@ -43,9 +64,23 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
     }
 
     @Override
-    public List<User> getAllUsers() throws RemoteException {
+    public List<UserSummary> getAllUsers() throws RemoteException {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(
+                    "SELECT new org.example.dto.UserSummary(u.user_id, u.email, u.username, u.nickname, u.role) FROM User u",
+                    UserSummary.class
+            ).list();
+        } catch (Exception e) {
+            throw new RemoteException("Error fetching users", e);
+        }
+    }
+
+    @Override
+    public Page<UserSummary> getUsers(PageRequest request) throws RemoteException {
         try (Session session = sessionFactory.openSession()) {
-            return session.createQuery("FROM User", User.class).list();
+            return PageQueries.fetch(session, UserSummary.class,
+                    "SELECT new org.example.dto.UserSummary(u.user_id, u.email, u.username, u.nickname, u.role)",
+                    "FROM User u", "u.user_id", USER_SORT_COLUMNS, USER_FILTER_COLUMNS, request);
         } catch (Exception e) {
             throw new RemoteException("Error fetching users", e);
         }
@@ -132,11 +167,12 @@ public class UserServiceImpl extends UnicastRemoteObject implements UserService
 //        }
 //    }
     @Override
-    public List<ChatGroup> getGroupDataByUserId(int userId) throws RemoteException {
+    public List<GroupSummary> getGroupDataByUserId(int userId) throws RemoteException {
         System.out.println("Fetching groups for user ID: " + userId);
         try (Session session = sessionFactory.openSession()) {
-            String hql = "SELECT cu.chatGroup FROM ChatUser cu WHERE cu.user.user_id = :userId";
-            return session.createQuery(hql, ChatGroup.class)
+            String hql = "SELECT new org.example.dto.GroupSummary(g.chatId, g.chatName, g.description, a.user_id, a.username) " +
+                    "FROM ChatUser cu JOIN cu.chatGroup g LEFT JOIN g.admin a WHERE cu.user.user_id = :userId";
+            return session.createQuery(hql, GroupSummary.class)
                     .setParameter("userId", userId)
                     .list();
         } catch (Exception e) {
@@ -0,0 +1,71 @@
+package org.example.server.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures of one timed operation.
+ */
+public final class LatencyStats implements LatencyStatsMXBean {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * Records the time since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.meanNanos() / 1000;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.percentileNanos(0.5) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.percentileNanos(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.percentileNanos(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.maxNanos() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.server.metrics;
+
+/**
+ * What JMX shows of one service method or {@code sendMessage} phase.
+ * Latencies are in microseconds.
+ */
+public interface LatencyStatsMXBean {
+    long getCount();
+
+    long getErrors();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,82 @@
+package org.example.server.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Call counts, errors and latencies of the remote services and of the
+ * phases of {@code sendMessage}, registered with the platform MBean server
+ * under {@value #DOMAIN}:
+ * <pre>
+ * org.example.chat:type=Method,service=ChatService,name=sendMessage
+ * org.example.chat:type=Phase,name=sendMessage.commit
+ * </pre>
+ */
+public final class ServerMetrics {
+    public static final String DOMAIN = "org.example.chat";
+
+    private static final Map<String, LatencyStats> PHASES = new ConcurrentHashMap<>();
+
+    private ServerMetrics() {
+    }
+
+    /**
+     * The stats of a phase, registered the first time it is asked for.
+     */
+    public static LatencyStats phase(String name) {
+        return PHASES.computeIfAbsent(name, n -> register(new LatencyStats(), "type=Phase,name=" + n));
+    }
+
+    /**
+     * Wraps a service so every method of the interface is timed. A method
+     * that throws counts as an error and its time is recorded as well.
+     */
+    public static <T> T instrument(Class<T> type, T service) {
+        Map<Method, LatencyStats> methods = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            methods.put(method, register(new LatencyStats(),
+                    "type=Method,service=" + type.getSimpleName() + ",name=" + method.getName()));
+        }
+        InvocationHandler handler = (proxy, method, args) -> {
+            LatencyStats stats = methods.get(method);
+            long start = System.nanoTime();
+            try {
+                return method.invoke(service, args);
+            } catch (InvocationTargetException e) {
+                if (stats != null) {
+                    stats.recordError();
+                }
+                throw e.getCause();
+            } finally {
+                if (stats != null) {
+                    stats.recordSince(start);
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static LatencyStats register(LatencyStats stats, String properties) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            // A second server in the same JVM takes over the name
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(stats, name);
+        } catch (JMException e) {
+            System.err.println("Error registering metrics " + properties + ": " + e.getMessage());
+        }
+        return stats;
+    }
+}
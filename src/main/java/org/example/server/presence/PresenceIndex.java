@@ -0,0 +1,100 @@
+package org.example.server.presence;
+
+import org.example.domain.ChatLog;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is online and who is in which chat, kept in memory so presence checks
+ * do not query the chat_log table. A user is online while they hold an open
+ * session, the {@link ChatLog} handed out at login, and is a member of the
+ * chats they are subscribed to. A user may hold several subscriptions to
+ * one chat, e.g. two dashboards, and stays a member until the last of them
+ * ends.
+ * <p>
+ * The database copy of the sessions is written behind by the chat log
+ * writer; nothing here is read back from it.
+ */
+public class PresenceIndex {
+    private final Map<Integer, ChatLog> sessions = new ConcurrentHashMap<>();
+    // Chat id to user id to the number of that user's subscriptions
+    private final Map<Integer, Map<Integer, Integer>> members = new ConcurrentHashMap<>();
+
+    /**
+     * @return the session the user still had open, it has to be closed
+     */
+    public ChatLog login(ChatLog session) {
+        return sessions.put(session.getUser_id(), session);
+    }
+
+    /**
+     * @return the session that was open, or {@code null} if the user was offline
+     */
+    public ChatLog logout(int userId) {
+        return sessions.remove(userId);
+    }
+
+    /**
+     * Ends the user's session only if it is the given one, a newer login is kept.
+     *
+     * @return the session that was open
+     */
+    public ChatLog logout(int userId, long sessionId) {
+        ChatLog[] ended = new ChatLog[1];
+        sessions.computeIfPresent(userId, (id, session) -> {
+            if (session.getChat_id() != sessionId) {
+                return session;
+            }
+            ended[0] = session;
+            return null;
+        });
+        return ended[0];
+    }
+
+    public boolean isOnline(int userId) {
+        return sessions.containsKey(userId);
+    }
+
+    /**
+     * Counts one more subscription of the user to the chat.
+     */
+    public void join(int chatId, int userId) {
+        members.compute(chatId, (id, users) -> {
+            Map<Integer, Integer> counts = users != null ? users : new HashMap<>();
+            counts.merge(userId, 1, Integer::sum);
+            return counts;
+        });
+    }
+
+    /**
+     * Ends one subscription of the user to the chat.
+     *
+     * @return whether that was the last subscription of anyone in the chat
+     */
+    public boolean leave(int chatId, int userId) {
+        boolean[] last = new boolean[1];
+        members.computeIfPresent(chatId, (id, users) -> {
+            // Empty chats are dropped, so an empty map here means this user just left it
+            users.computeIfPresent(userId, (user, count) -> count > 1 ? count - 1 : null);
+            last[0] = users.isEmpty();
+            return users.isEmpty() ? null : users;
+        });
+        return last[0];
+    }
+
+    public int activeMembers(int chatId) {
+        // Read under the map's lock, the counts are only changed inside compute
+        int[] size = new int[1];
+        members.computeIfPresent(chatId, (id, users) -> {
+            size[0] = users.size();
+            return users;
+        });
+        return size[0];
+    }
+
+    public int onlineUsers() {
+        return sessions.size();
+    }
+}
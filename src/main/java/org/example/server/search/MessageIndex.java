@@ -0,0 +1,225 @@
+package org.example.server.search;
+
+import org.example.dto.MessageView;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the text of every chat message.
+ * <p>
+ * Messages are numbered in message id order as they are added; a term maps
+ * to the ascending numbers of the messages containing it. Chat id and
+ * timestamp of every message are kept in parallel arrays, so filters are
+ * checked without leaving the index. A search walks the shortest posting
+ * list of its terms from the newest message backwards and stops once it has
+ * enough hits.
+ * <p>
+ * The index is built from chat_message by {@link #loadInBackground} and kept
+ * current with {@link #add} for every committed message. Messages committed
+ * while the load runs are held back and added after it, so numbering stays in
+ * id order.
+ */
+public class MessageIndex {
+    private static final int FETCH_SIZE = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> terms = new HashMap<>();
+    private long[] messageIds = new long[1024];
+    private int[] chatIds = new int[1024];
+    private long[] timestamps = new long[1024];
+    private int size;
+    private long lastMessageId = Long.MIN_VALUE;
+    private boolean loading;
+    private final List<MessageView> heldBack = new ArrayList<>();
+
+    /**
+     * Indexes a committed message.
+     */
+    public void add(MessageView message) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                heldBack.add(message);
+            } else {
+                append(message.messageId(), message.chatId(), message.timestamp(), message.body());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes every stored message on a background thread, streaming them in
+     * id order. Searches run against what has been indexed so far.
+     */
+    public void loadInBackground(SessionFactory sessionFactory) {
+        // Set before returning, messages committed from now on are held back
+        setLoading(true);
+        Thread.ofPlatform().daemon().name("message-index-load").start(() -> load(sessionFactory));
+    }
+
+    private void load(SessionFactory sessionFactory) {
+        long started = System.nanoTime();
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults<Object[]> rows = session.createQuery(
+                             "SELECT m.message_id, m.chatGroup.chatId, m.start_at, m.message " +
+                                     "FROM ChatMessage m ORDER BY m.message_id",
+                             Object[].class)
+                     .setFetchSize(FETCH_SIZE)
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                Object[] row = rows.get();
+                lock.writeLock().lock();
+                try {
+                    append((Long) row[0], (Integer) row[1], (LocalDateTime) row[2], (String) row[3]);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading message index: " + e.getMessage());
+        } finally {
+            setLoading(false);
+        }
+        System.out.println("Indexed " + size() + " messages in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    /**
+     * @param chatId only messages of this chat, all chats if {@code null}
+     * @param from   only messages at or after this time if not {@code null}
+     * @param to     only messages before this time if not {@code null}
+     * @return ids of the newest messages containing every term of the query,
+     * newest first
+     */
+    public List<Long> search(String query, Integer chatId, LocalDateTime from, LocalDateTime to, int limit) {
+        Set<String> queryTerms = tokenize(query);
+        List<Long> hits = new ArrayList<>();
+        if (queryTerms.isEmpty()) {
+            return hits;
+        }
+        long fromMillis = from != null ? toMillis(from) : Long.MIN_VALUE;
+        long toMillis = to != null ? toMillis(to) : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[queryTerms.size()];
+            int i = 0;
+            for (String term : queryTerms) {
+                lists[i] = terms.get(term);
+                if (lists[i++] == null) {
+                    return hits;
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+
+            Postings shortest = lists[0];
+            for (int p = shortest.size() - 1; p >= 0 && hits.size() < limit; p--) {
+                int doc = shortest.get(p);
+                if ((chatId != null && chatIds[doc] != chatId)
+                        || timestamps[doc] < fromMillis || timestamps[doc] >= toMillis
+                        || !inAll(lists, doc)) {
+                    continue;
+                }
+                hits.add(messageIds[doc]);
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void append(long messageId, int chatId, LocalDateTime timestamp, String text) {
+        // Skips messages the load already read when they are also added live
+        if (messageId <= lastMessageId) {
+            return;
+        }
+        if (size == messageIds.length) {
+            int capacity = size + (size >> 1);
+            messageIds = Arrays.copyOf(messageIds, capacity);
+            chatIds = Arrays.copyOf(chatIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+        int doc = size++;
+        messageIds[doc] = messageId;
+        chatIds[doc] = chatId;
+        timestamps[doc] = timestamp != null ? toMillis(timestamp) : 0;
+        lastMessageId = messageId;
+        for (String term : tokenize(text)) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(doc);
+        }
+    }
+
+    private void setLoading(boolean loading) {
+        lock.writeLock().lock();
+        try {
+            this.loading = loading;
+            if (!loading) {
+                heldBack.sort(Comparator.comparingLong(MessageView::messageId));
+                for (MessageView message : heldBack) {
+                    append(message.messageId(), message.chatId(), message.timestamp(), message.body());
+                }
+                heldBack.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean inAll(Postings[] lists, int doc) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(doc)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lower-cased runs of letters and digits
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.server.search;
+
+import java.util.Arrays;
+
+/**
+ * Ascending document numbers of one term, in a growable int array.
+ */
+final class Postings {
+    private int[] docs = new int[2];
+    private int size;
+
+    void add(int doc) {
+        // Documents arrive in order, a term repeated within one message is stored once
+        if (size > 0 && docs[size - 1] == doc) {
+            return;
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+        }
+        docs[size++] = doc;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return docs[index];
+    }
+
+    boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Wire format of the NIO transport. Every frame is a 4 byte big-endian
+ * length followed by that many bytes:
+ * <pre>
+ * REQUEST   kind, int callId, UTF method key, serialized Object[] arguments
+ * RESPONSE  kind, int callId, boolean failed, serialized result or exception
+ * PUSH      kind, int observerId, int chatId, MessageBatch in its external form
+ * PRESENCE  kind, int observerId, serialized PresenceEvent
+ * </pre>
+ * Arguments and results use the same serialized forms as RMI, so the compact
+ * wire forms of the payload types apply here too.
+ */
+final class Frames {
+    static final byte REQUEST = 1;
+    static final byte RESPONSE = 2;
+    static final byte PUSH = 3;
+    static final byte PRESENCE = 4;
+    static final int HEADER_BYTES = 4;
+    static final int MAX_FRAME_BYTES = Integer.getInteger("chat.nio.maxFrameBytes", 16 * 1024 * 1024);
+
+    private Frames() {
+    }
+
+    /**
+     * Names a service method the same way on both ends, overloads included.
+     */
+    static String methodKey(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Builds one frame, the length prefix is filled in by {@link #finish()}.
+     */
+    static final class Builder extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        Builder(byte kind, int id) throws IOException {
+            super(256);
+            data.writeInt(0);
+            data.writeByte(kind);
+            data.writeInt(id);
+        }
+
+        DataOutputStream data() {
+            return data;
+        }
+
+        Builder object(Object value) throws IOException {
+            ObjectOutputStream out = new ObjectOutputStream(this);
+            out.writeObject(value);
+            out.flush();
+            return this;
+        }
+
+        ByteBuffer finish() throws IOException {
+            data.flush();
+            if (count - HEADER_BYTES > MAX_FRAME_BYTES) {
+                throw new IOException("Frame of " + (count - HEADER_BYTES) + " bytes");
+            }
+            ByteBuffer frame = ByteBuffer.wrap(buf, 0, count);
+            frame.putInt(0, count - HEADER_BYTES);
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.transport;
+
+import org.example.rmi.ChatLogService;
+import org.example.rmi.ChatService;
+import org.example.rmi.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Second transport next to RMI: the operations of {@link ChatService},
+ * {@link UserService} and {@link ChatLogService} over one TCP connection
+ * per client, with the chat callbacks pushed back on the same connection,
+ * so clients behind NAT need no exported observer. See {@link Frames} for
+ * the wire format and {@link NioClient} for the client side.
+ * <p>
+ * One selector thread accepts, reads and writes; every call runs on its own
+ * virtual thread since the services block on the database.
+ */
+public class NioChatServer implements Closeable {
+    // Only the application's payload types and the JDK types they are made of
+    private static final ObjectInputFilter ARGUMENT_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxrefs=100000;org.example.**;java.lang.*;java.util.*;java.time.*;!*");
+
+    private final Map<String, Method> methods = new HashMap<>();
+    private final Map<Class<?>, Object> services = new HashMap<>();
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Queue<NioConnection> wantWrite = new ConcurrentLinkedQueue<>();
+    private final ExecutorService calls = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("nio-call-", 0).factory());
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    public NioChatServer(int port, ChatService chatService, UserService userService, ChatLogService logService)
+            throws IOException {
+        register(ChatService.class, chatService);
+        register(UserService.class, userService);
+        register(ChatLogService.class, logService);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        selectorThread = Thread.ofPlatform().name("nio-selector").daemon().start(this::run);
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void register(Class<?> type, Object service) {
+        services.put(type, service);
+        for (Method method : type.getMethods()) {
+            if (methods.put(Frames.methodKey(method), method) != null) {
+                throw new IllegalStateException("Two methods map to " + Frames.methodKey(method));
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                NioConnection pending;
+                while ((pending = wantWrite.poll()) != null) {
+                    SelectionKey key = pending.channel().keyFor(selector);
+                    if (key != null && key.isValid()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    handle(key);
+                }
+                selector.selectedKeys().clear();
+            } catch (IOException e) {
+                System.err.println("NIO selector error: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isReadable() && !connection.read(frame -> calls.execute(() -> call(connection, frame)))) {
+                disconnect(key, connection);
+                return;
+            }
+            // Frames queued after this flush ask for OP_WRITE again through wantsWrite
+            if (key.isValid() && key.isWritable() && connection.flush()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            disconnect(key, connection);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            NioConnection connection = new NioConnection(channel, this::wantsWrite);
+            channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException e) {
+            System.err.println("Error accepting NIO client: " + e.getMessage());
+        }
+    }
+
+    private void wantsWrite(NioConnection connection) {
+        wantWrite.add(connection);
+        selector.wakeup();
+    }
+
+    private void disconnect(SelectionKey key, NioConnection connection) {
+        key.cancel();
+        connection.close();
+    }
+
+    // Runs on a virtual thread per request
+    private void call(NioConnection connection, byte[] frame) {
+        int callId = 0;
+        Object result;
+        boolean failed;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame))) {
+            if (in.readByte() != Frames.REQUEST) {
+                throw new IOException("Expected a request frame");
+            }
+            callId = in.readInt();
+            String key = in.readUTF();
+            Method method = methods.get(key);
+            if (method == null) {
+                throw new RemoteException("Unknown method " + key);
+            }
+            ObjectInputStream objects = new ObjectInputStream(in);
+            objects.setObjectInputFilter(ARGUMENT_FILTER);
+            Object[] args = (Object[]) objects.readObject();
+            for (int i = 0; args != null && i < args.length; i++) {
+                if (args[i] instanceof ObserverRef ref) {
+                    args[i] = new PushObserver(connection, ref.observerId());
+                }
+            }
+            result = method.invoke(services.get(method.getDeclaringClass()), args);
+            failed = false;
+        } catch (InvocationTargetException e) {
+            result = e.getCause();
+            failed = true;
+        } catch (Exception e) {
+            result = e instanceof RemoteException ? e : new RemoteException("Bad request: " + e.getMessage());
+            failed = true;
+        }
+        respond(connection, callId, failed, result);
+    }
+
+    private void respond(NioConnection connection, int callId, boolean failed, Object result) {
+        try {
+            connection.send(response(callId, failed, result));
+        } catch (IOException e) {
+            try {
+                // Results that cannot be written still fail the caller instead of leaving it waiting
+                connection.send(response(callId, true,
+                        new RemoteException("Error sending result: " + e.getMessage())));
+            } catch (IOException closed) {
+                // The client is gone
+            }
+        }
+    }
+
+    private static ByteBuffer response(int callId, boolean failed, Object result) throws IOException {
+        Frames.Builder frame = new Frames.Builder(Frames.RESPONSE, callId);
+        frame.data().writeBoolean(failed);
+        return frame.object(result).finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection) {
+                connection.close();
+            }
+        }
+        selector.close();
+        serverChannel.close();
+        calls.shutdown();
+    }
+}
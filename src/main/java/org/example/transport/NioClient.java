@@ -0,0 +1,269 @@
+package org.example.transport;
+
+import org.example.dto.MessageBatch;
+import org.example.dto.PresenceEvent;
+import org.example.rmi.ChatObserver;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client side of the {@link NioChatServer}. {@link #service(Class)} returns
+ * the same service interfaces the RMI registry hands out, so the UI code does
+ * not change; observers passed to them stay in this JVM and receive the
+ * pushes of this connection, one at a time and in order like RMI callbacks
+ * of one subscription.
+ */
+public class NioClient implements Closeable {
+    private static final long CALL_TIMEOUT_MILLIS = Long.getLong("chat.nio.callTimeoutMillis", 30_000);
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final AtomicInteger nextCallId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+    // Guarded by observers; an observer is known while it is subscribed to a chat
+    private final Map<ChatObserver, Integer> observerIds = new HashMap<>();
+    private final Map<Integer, ChatObserver> observers = new HashMap<>();
+    private final Map<ChatObserver, Set<Integer>> observerChats = new HashMap<>();
+    private int lastObserverId;
+    private final ExecutorService pushes = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("nio-push").factory());
+    private volatile boolean closed;
+
+    private NioClient(Socket socket) throws IOException {
+        this.socket = socket;
+        this.out = socket.getOutputStream();
+        // Virtual, so a process can hold thousands of connections like the load driver does
+        Thread.ofVirtual().name("nio-reader").start(this::readLoop);
+    }
+
+    public static NioClient connect(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port));
+        return new NioClient(socket);
+    }
+
+    public <T> T service(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> method.getDeclaringClass() == Object.class ? proxy == args[0] : call(method, args);
+                    case "hashCode" -> method.getDeclaringClass() == Object.class
+                            ? System.identityHashCode(proxy) : call(method, args);
+                    case "toString" -> method.getDeclaringClass() == Object.class
+                            ? "NioClient[" + type.getSimpleName() + " at " + socket.getRemoteSocketAddress() + "]"
+                            : call(method, args);
+                    default -> call(method, args);
+                }));
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        Object[] wireArgs = args == null ? new Object[0] : args.clone();
+        for (int i = 0; i < wireArgs.length; i++) {
+            if (wireArgs[i] instanceof ChatObserver observer) {
+                wireArgs[i] = new ObserverRef(observerId(observer));
+            }
+        }
+        int callId = nextCallId.incrementAndGet();
+        Frames.Builder frame = new Frames.Builder(Frames.REQUEST, callId);
+        frame.data().writeUTF(Frames.methodKey(method));
+        ByteBuffer request = frame.object(wireArgs).finish();
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        pending.put(callId, result);
+        try {
+            if (closed) {
+                throw new ConnectException("Connection closed");
+            }
+            synchronized (out) {
+                out.write(request.array(), 0, request.limit());
+                out.flush();
+            }
+            Object value = result.get(CALL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            trackSubscriptions(method, args);
+            return value;
+        } catch (IOException e) {
+            close();
+            throw e instanceof RemoteException ? e : new ConnectException("Error sending request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RemoteException || cause instanceof RuntimeException || cause instanceof Error) {
+                throw cause;
+            }
+            for (Class<?> declared : method.getExceptionTypes()) {
+                if (declared.isInstance(cause)) {
+                    throw cause;
+                }
+            }
+            throw new RemoteException("Call failed: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new RemoteException("No answer to " + method.getName() + " within " + CALL_TIMEOUT_MILLIS + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while calling " + method.getName(), e);
+        } finally {
+            pending.remove(callId);
+        }
+    }
+
+    private int observerId(ChatObserver observer) {
+        synchronized (observers) {
+            return observerIds.computeIfAbsent(observer, o -> {
+                int id = ++lastObserverId;
+                observers.put(id, o);
+                return id;
+            });
+        }
+    }
+
+    // The chat id is the last argument of subscribe, unsubscribe and unsubscribeFromChat
+    private void trackSubscriptions(Method method, Object[] args) {
+        String name = method.getName();
+        boolean subscribe = name.equals("subscribe");
+        if (!subscribe && !name.equals("unsubscribe") && !name.equals("unsubscribeFromChat")
+                || args == null || !(args[args.length - 1] instanceof Integer chatId)) {
+            return;
+        }
+        synchronized (observers) {
+            for (Object arg : args) {
+                if (!(arg instanceof ChatObserver observer)) {
+                    continue;
+                }
+                Set<Integer> chats = observerChats.computeIfAbsent(observer, o -> new HashSet<>());
+                if (subscribe) {
+                    chats.add(chatId);
+                    continue;
+                }
+                chats.remove(chatId);
+                if (chats.isEmpty()) {
+                    // Subscribed nowhere any more, forget it so the maps do not only grow
+                    observerChats.remove(observer);
+                    Integer id = observerIds.remove(observer);
+                    if (id != null) {
+                        observers.remove(id);
+                    }
+                }
+            }
+        }
+    }
+
+    private void readLoop() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (!closed) {
+                int length = in.readInt();
+                if (length < 0 || length > Frames.MAX_FRAME_BYTES) {
+                    throw new IOException("Frame of " + length + " bytes");
+                }
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                dispatch(frame);
+            }
+        } catch (EOFException e) {
+            // The server closed the connection
+        } catch (IOException | ClassNotFoundException e) {
+            if (!closed) {
+                System.err.println("NIO connection lost: " + e.getMessage());
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void dispatch(byte[] frame) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        byte kind = in.readByte();
+        int id = in.readInt();
+        if (kind == Frames.RESPONSE) {
+            boolean failed = in.readBoolean();
+            Object result = new ObjectInputStream(in).readObject();
+            CompletableFuture<Object> call = pending.get(id);
+            if (call != null) {
+                if (failed) {
+                    call.completeExceptionally((Throwable) result);
+                } else {
+                    call.complete(result);
+                }
+            }
+        } else if (kind == Frames.PUSH) {
+            int chatId = in.readInt();
+            MessageBatch batch = new MessageBatch();
+            batch.readExternal(new ObjectInputStream(in));
+            ChatObserver observer;
+            synchronized (observers) {
+                observer = observers.get(id);
+            }
+            if (observer != null) {
+                pushes.execute(() -> deliver(observer, batch, chatId));
+            }
+        } else if (kind == Frames.PRESENCE) {
+            PresenceEvent event = (PresenceEvent) new ObjectInputStream(in).readObject();
+            ChatObserver observer;
+            synchronized (observers) {
+                observer = observers.get(id);
+            }
+            if (observer != null) {
+                // Same executor as the batches, so the order the server queued them in holds
+                pushes.execute(() -> deliverPresence(observer, event));
+            }
+        } else {
+            throw new IOException("Unexpected frame kind " + kind);
+        }
+    }
+
+    private static void deliver(ChatObserver observer, MessageBatch batch, int chatId) {
+        try {
+            observer.notifyMessages(batch, chatId);
+        } catch (RemoteException | RuntimeException e) {
+            System.err.println("Error delivering messages to observer: " + e.getMessage());
+        }
+    }
+
+    private static void deliverPresence(ChatObserver observer, PresenceEvent event) {
+        try {
+            observer.notifyPresence(event);
+        } catch (RemoteException | RuntimeException e) {
+            System.err.println("Error delivering presence to observer: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing NIO connection: " + e.getMessage());
+        }
+        ConnectException gone = new ConnectException("Connection closed");
+        pending.values().forEach(call -> call.completeExceptionally(gone));
+        pushes.shutdown();
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.transport;
+
+import org.example.dto.MessageBatch;
+import org.example.dto.PresenceEvent;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.rmi.ConnectException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One client connection of the {@link NioChatServer}. Reading and writing
+ * happen on the selector thread; any thread may queue a frame. Pushes block
+ * their sender while more than {@code chat.nio.maxPendingBytes} are waiting
+ * to be written, so a slow client backs up its own observer queues the same
+ * way a slow RMI callback does.
+ */
+final class NioConnection {
+    private static final long MAX_PENDING_BYTES = Long.getLong("chat.nio.maxPendingBytes", 4L * 1024 * 1024);
+    private static final long PUSH_TIMEOUT_MILLIS = Long.getLong("chat.nio.pushTimeoutMillis", 30_000);
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final Runnable wantsWrite;
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Object drained = new Object();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    private volatile boolean closed;
+
+    NioConnection(SocketChannel channel, Consumer<NioConnection> wantsWrite) {
+        this.channel = channel;
+        this.wantsWrite = () -> wantsWrite.accept(this);
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Reads what the socket has and hands every complete frame, without its
+     * length prefix, to the consumer.
+     *
+     * @return false once the client has closed the connection
+     */
+    boolean read(Consumer<byte[]> frames) throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            return false;
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= Frames.HEADER_BYTES) {
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length < 0 || length > Frames.MAX_FRAME_BYTES) {
+                throw new IOException("Frame of " + length + " bytes");
+            }
+            if (readBuffer.remaining() < Frames.HEADER_BYTES + length) {
+                if (readBuffer.capacity() < Frames.HEADER_BYTES + length) {
+                    // Grow to hold the whole frame
+                    ByteBuffer larger = ByteBuffer.allocate(Frames.HEADER_BYTES + length);
+                    larger.put(readBuffer);
+                    readBuffer = larger;
+                    return true;
+                }
+                break;
+            }
+            byte[] frame = new byte[length];
+            readBuffer.position(readBuffer.position() + Frames.HEADER_BYTES);
+            readBuffer.get(frame);
+            frames.accept(frame);
+        }
+        readBuffer.compact();
+        if (readBuffer.capacity() > READ_BUFFER_BYTES && readBuffer.position() <= READ_BUFFER_BYTES) {
+            // The large frame is consumed, the connection does not keep its buffer
+            ByteBuffer smaller = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            smaller.put(readBuffer.flip());
+            readBuffer = smaller;
+        }
+        return true;
+    }
+
+    /**
+     * Writes queued frames until the queue is empty or the socket is full.
+     *
+     * @return true if everything queued has been written
+     */
+    boolean flush() throws IOException {
+        ByteBuffer head;
+        while ((head = writeQueue.peek()) != null) {
+            int written = channel.write(head);
+            if (written > 0 && pendingBytes.addAndGet(-written) <= MAX_PENDING_BYTES) {
+                synchronized (drained) {
+                    drained.notifyAll();
+                }
+            }
+            if (head.hasRemaining()) {
+                return false;
+            }
+            writeQueue.poll();
+        }
+        return true;
+    }
+
+    void send(ByteBuffer frame) throws ConnectException {
+        if (closed) {
+            throw new ConnectException("Connection closed");
+        }
+        pendingBytes.addAndGet(frame.remaining());
+        writeQueue.add(frame);
+        wantsWrite.run();
+    }
+
+    /**
+     * Queues a batch for an observer, waiting while the client is too far behind.
+     */
+    void push(int observerId, int chatId, MessageBatch batch) throws IOException {
+        Frames.Builder frame = new Frames.Builder(Frames.PUSH, observerId);
+        frame.data().writeInt(chatId);
+        ObjectOutputStream out = new ObjectOutputStream(frame);
+        batch.writeExternal(out);
+        out.flush();
+        awaitDrained();
+        send(frame.finish());
+    }
+
+    /**
+     * Queues a join or leave for an observer, with the same back-pressure as a batch.
+     */
+    void pushPresence(int observerId, PresenceEvent event) throws IOException {
+        Frames.Builder frame = new Frames.Builder(Frames.PRESENCE, observerId).object(event);
+        awaitDrained();
+        send(frame.finish());
+    }
+
+    private void awaitDrained() throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PUSH_TIMEOUT_MILLIS);
+        synchronized (drained) {
+            while (!closed && pendingBytes.get() > MAX_PENDING_BYTES) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Client is not reading its pushes");
+                }
+                try {
+                    drained.wait(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the client", e);
+                }
+            }
+        }
+        if (closed) {
+            throw new ConnectException("Connection closed");
+        }
+    }
+
+    void close() {
+        closed = true;
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+        writeQueue.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+}
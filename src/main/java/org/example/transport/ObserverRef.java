@@ -0,0 +1,10 @@
+package org.example.transport;
+
+import java.io.Serializable;
+
+/**
+ * Takes the place of a {@link org.example.rmi.ChatObserver} argument on the
+ * wire, the server pushes to the observer by this id.
+ */
+record ObserverRef(int observerId) implements Serializable {
+}
@@ -0,0 +1,76 @@
+package org.example.transport;
+
+import org.example.dto.MessageBatch;
+import org.example.dto.MessageView;
+import org.example.dto.PresenceEvent;
+import org.example.rmi.ChatObserver;
+
+import java.io.IOException;
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Stands in on the server for an observer of a NIO client and pushes its
+ * callbacks over the client's connection. A connection that is closed or
+ * stops reading fails with {@link ConnectException}, which makes the
+ * dispatcher evict the subscription like a dead RMI client.
+ * <p>
+ * A new one is made for every call that passes the observer. Two of them are
+ * equal when they push to the same observer over the same connection, so an
+ * unsubscribe finds the subscription and the connection keeps nothing.
+ */
+final class PushObserver implements ChatObserver {
+    private final NioConnection connection;
+    private final int observerId;
+
+    PushObserver(NioConnection connection, int observerId) {
+        this.connection = connection;
+        this.observerId = observerId;
+    }
+
+    @Override
+    public void notifyNewMessage(String message, int chatId) throws RemoteException {
+        notifyMessages(List.of(MessageView.notice(chatId, message)), chatId);
+    }
+
+    @Override
+    public void notifyMessages(List<MessageView> messages, int chatId) throws RemoteException {
+        try {
+            connection.push(observerId, chatId,
+                    messages instanceof MessageBatch batch ? batch : new MessageBatch(messages));
+        } catch (ConnectException e) {
+            throw e;
+        } catch (IOException e) {
+            connection.close();
+            throw new ConnectException("Dropped NIO client: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void notifyPresence(PresenceEvent event) throws RemoteException {
+        try {
+            connection.pushPresence(observerId, event);
+        } catch (ConnectException e) {
+            throw e;
+        } catch (IOException e) {
+            connection.close();
+            throw new ConnectException("Dropped NIO client: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PushObserver other && other.connection == connection && other.observerId == observerId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(connection) + observerId;
+    }
+
+    @Override
+    public String toString() {
+        return "PushObserver[" + observerId + " on " + connection.channel() + "]";
+    }
+}